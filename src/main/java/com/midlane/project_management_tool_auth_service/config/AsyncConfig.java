@@ -0,0 +1,63 @@
+package com.midlane.project_management_tool_auth_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig {
+
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+
+    @Value("${app.mail.executor.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.mail.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // discard: drop the email and count it; caller-runs: send on the calling thread (blocks it on SMTP)
+    @Value("${app.mail.executor.rejection-policy:discard}")
+    private String rejectionPolicy;
+
+    /**
+     * Executor for SMTP dispatch: a fixed number of virtual threads (bounding concurrent SMTP sessions) in front of
+     * a bounded queue, so request threads never wait on SMTP. The email dispatcher runs its per-connection batches
+     * here. Exported as executor.* metrics tagged name=mail.
+     */
+    @Bean(name = MAIL_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService mailExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = meterRegistry.counter("mail.executor.rejected");
+        RejectedExecutionHandler handler = switch (rejectionPolicy) {
+            case "caller-runs" -> (task, executor) -> {
+                rejected.increment();
+                new ThreadPoolExecutor.CallerRunsPolicy().rejectedExecution(task, executor);
+            };
+            case "discard" -> (task, executor) -> {
+                rejected.increment();
+                log.warn("Mail executor queue is full ({} pending), dropping email", executor.getQueue().size());
+            };
+            default -> throw new IllegalStateException("Unknown mail executor rejection policy: " + rejectionPolicy);
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("mail-", 0).factory(),
+                handler);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "mail", List.of());
+    }
+}
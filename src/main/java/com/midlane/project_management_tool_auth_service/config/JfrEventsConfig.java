@@ -0,0 +1,21 @@
+package com.midlane.project_management_tool_auth_service.config;
+
+import com.midlane.project_management_tool_auth_service.util.JfrEvents;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sets the key for the subject hashes in Flight Recorder events. Applies to any recording, not only the one
+ * {@link JfrRecordingConfig} keeps; without a key each process hashes with a random one.
+ */
+@Configuration
+public class JfrEventsConfig {
+
+    public JfrEventsConfig(@Value("${app.jfr.subject-hash-key:}") String subjectHashKey) {
+        if (!subjectHashKey.isBlank()) {
+            JfrEvents.setSubjectHashKey(subjectHashKey.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.midlane.project_management_tool_auth_service.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps a continuous Flight Recorder recording with the settings in {@code jfr/auth-service.jfc} merged over the
+ * JDK defaults. Only the last {@code max-age} is retained; it is written to {@code path} on shutdown, and can be
+ * dumped at any time with {@code jcmd <pid> JFR.dump name=auth-service}.
+ */
+@org.springframework.context.annotation.Configuration
+@ConditionalOnProperty(name = "app.jfr.recording.enabled", havingValue = "true")
+@Slf4j
+public class JfrRecordingConfig {
+
+    private static final String SETTINGS = "jfr/auth-service.jfc";
+
+    @Value("${app.jfr.recording.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    @Value("${app.jfr.recording.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${app.jfr.recording.path:./data/auth-service.jfr}")
+    private String path;
+
+    private Recording recording;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (Reader reader = new InputStreamReader(new ClassPathResource(SETTINGS).getInputStream(), StandardCharsets.UTF_8)) {
+            settings.putAll(Configuration.create(reader).getSettings());
+        }
+
+        Path destination = Path.of(path);
+        Path parent = destination.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        recording = new Recording(settings);
+        recording.setName("auth-service");
+        recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.setToDisk(true);
+        recording.setDestination(destination);
+        recording.start();
+        log.info("Flight Recorder recording started, keeping the last {} minutes (dumped to {} on shutdown)",
+                maxAgeMinutes, destination);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.stop(); // Writes the retained data to the destination
+            recording.close();
+        }
+    }
+}
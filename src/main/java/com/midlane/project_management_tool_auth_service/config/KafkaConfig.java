@@ -1,15 +1,22 @@
 package com.midlane.project_management_tool_auth_service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,27 +24,119 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
 
+    public static final String BROADCAST_LISTENER_FACTORY = "broadcastListenerContainerFactory";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.producer.max-block-ms:1000}")
+    private int maxBlockMs;
+
+    @Value("${app.kafka.producer.request-timeout-ms:10000}")
+    private int requestTimeoutMs;
+
+    @Value("${app.kafka.producer.delivery-timeout-ms:30000}")
+    private int deliveryTimeoutMs;
+
+    // Throughput profile: latency, balanced or throughput; the individual settings below override the profile
+    @Value("${app.kafka.producer.profile:balanced}")
+    private String profile;
+
+    @Value("${app.kafka.producer.linger-ms:#{null}}")
+    private Integer lingerMs;
+
+    @Value("${app.kafka.producer.batch-size:#{null}}")
+    private Integer batchSize;
+
+    @Value("${app.kafka.producer.compression-type:#{null}}")
+    private String compressionType;
+
+    @Value("${app.kafka.producer.max-in-flight:#{null}}")
+    private Integer maxInFlight;
+
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
+    public ProducerFactory<String, byte[]> producerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // Values are raw bytes: JSON messages are sent as UTF-8, binary user events as-is
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
 
         // Additional producer configs for reliability
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // Fail fast when the broker is unreachable so callers fall back to the spool instead of blocking
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+
+        applyThroughputProfile(configProps);
+
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(configProps);
+        // Exports the client's own metrics (batch size, compression rate, per-topic send rates) to Micrometer
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * For listeners where every instance reads every event under a group of its own. Offsets are never committed
+     * (manual ack mode, and the listener never acknowledges), so the broker removes each group soon after its
+     * instance is gone instead of accumulating one per restart; listeners pick their start position on assignment.
+     */
+    @Bean(BROADCAST_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> broadcastListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    private void applyThroughputProfile(Map<String, Object> configProps) {
+        switch (profile.toLowerCase()) {
+            case "latency" -> {
+                configProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+                configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
+                configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+            }
+            case "throughput" -> {
+                configProps.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+                configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 131072);
+                configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd");
+            }
+            case "balanced" -> {
+                configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+                configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+                configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            }
+            default -> throw new IllegalStateException("Unknown Kafka producer profile: " + profile);
+        }
+        // Idempotence keeps per-partition order with up to 5 requests in flight
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+
+        if (lingerMs != null) {
+            configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        }
+        if (batchSize != null) {
+            configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        }
+        if (compressionType != null) {
+            configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        }
+        if (maxInFlight != null) {
+            if (maxInFlight > 5) {
+                throw new IllegalStateException("app.kafka.producer.max-in-flight must be at most 5 with idempotence enabled");
+            }
+            configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlight);
+        }
     }
 
     // Topic creation - these will be automatically created if they don't exist
@@ -65,6 +164,16 @@ public class KafkaConfig {
                 .build();
     }
 
+    // Latest state per user id, for downstream bootstrap; deleted users are removed by tombstones
+    @Bean
+    public NewTopic userSnapshotTopic() {
+        return TopicBuilder.name("user.snapshot")
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .build();
+    }
+
     @Bean
     public NewTopic authEventsTopic() {
         return TopicBuilder.name("auth.events")
@@ -72,4 +181,13 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+
+    // Only written when app.audit.sink=kafka
+    @Bean
+    public NewTopic auditEventsTopic() {
+        return TopicBuilder.name("audit.events")
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
 }
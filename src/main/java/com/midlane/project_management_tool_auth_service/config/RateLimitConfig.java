@@ -0,0 +1,21 @@
+package com.midlane.project_management_tool_auth_service.config;
+
+import com.midlane.project_management_tool_auth_service.security.InMemoryRateLimitBackend;
+import com.midlane.project_management_tool_auth_service.security.RateLimitBackend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Per-instance state unless a shared backend bean is defined elsewhere
+    @Bean
+    @ConditionalOnMissingBean(RateLimitBackend.class)
+    public RateLimitBackend rateLimitBackend(
+            @Value("${app.rate-limit.memory.stripes:64}") int stripes,
+            @Value("${app.rate-limit.memory.max-entries:200000}") int maxEntries) {
+        return new InMemoryRateLimitBackend(stripes, maxEntries);
+    }
+}
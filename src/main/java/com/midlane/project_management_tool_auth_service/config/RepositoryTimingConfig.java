@@ -0,0 +1,28 @@
+package com.midlane.project_management_tool_auth_service.config;
+
+import com.midlane.project_management_tool_auth_service.util.RequestTimings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class RepositoryTimingConfig {
+
+    // Adds every repository call's duration to the "db" phase of the request being timed, if any
+    @Bean
+    static BeanPostProcessor repositoryTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation ->
+                            RequestTimings.add(RequestTimings.Phase.DB, invocation.getDuration(TimeUnit.NANOSECONDS))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.midlane.project_management_tool_auth_service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} relays, dispatchers and sweepers. Off only for one-shot runs such as the seed profile,
+ * where the sweepers would delete the expired rows just generated.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -1,10 +1,11 @@
 package com.midlane.project_management_tool_auth_service.config;
 
 import com.midlane.project_management_tool_auth_service.security.JwtAuthFilter;
+import com.midlane.project_management_tool_auth_service.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -21,12 +22,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 @EnableWebSecurity
-@EnableScheduling
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -41,13 +42,19 @@ public class SecurityConfig {
                                 "/api/auth/initial/login",
                                 "/api/auth/initial/refresh",
                                 "/api/auth/initial/public-key",
+                                // Introspection and internal revocation endpoints check their shared secrets themselves
+                                "/api/auth/initial/introspect",
+                                "/api/auth/initial/introspect/batch",
                                 "/api/auth/initial/social/**",
                                 "/api/auth/verify/**",
+                                "/api/auth/internal/revocations/snapshot",
+                                "/api/auth/internal/revocations/stream",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
                                 "/actuator/health",
-                                "/actuator/info"
+                                "/actuator/info",
+                                "/actuator/prometheus" // Scraped from inside the cluster; not routed by the gateway
                         ).permitAll()
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
@@ -74,6 +81,6 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 }
@@ -1,8 +1,11 @@
 package com.midlane.project_management_tool_auth_service.controller;
 
+import com.midlane.project_management_tool_auth_service.dto.SnapshotJobStatus;
 import com.midlane.project_management_tool_auth_service.dto.UserDTO;
 import com.midlane.project_management_tool_auth_service.model.Role;
+import com.midlane.project_management_tool_auth_service.service.RateLimitService;
 import com.midlane.project_management_tool_auth_service.service.UserService;
+import com.midlane.project_management_tool_auth_service.service.UserSnapshotPublisher;
 import com.midlane.project_management_tool_auth_service.exception.ErrorResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -18,6 +21,8 @@ import java.util.List;
 public class AdminController {
 
     private final UserService userService;
+    private final UserSnapshotPublisher userSnapshotPublisher;
+    private final RateLimitService rateLimitService;
 
     @GetMapping("/all-users")
     @PreAuthorize("hasRole('ADMIN')")
@@ -52,4 +57,32 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
     }
+
+    // Re-publish every user to the compacted user.snapshot topic, e.g. to bootstrap a new consumer
+    @PostMapping("/user-snapshot/republish")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> republishUserSnapshot() {
+        if (!userSnapshotPublisher.start()) {
+            ErrorResponse error = new ErrorResponse("SNAPSHOT_JOB_RUNNING", "A user snapshot re-publish is already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
+        return ResponseEntity.accepted().body(userSnapshotPublisher.getStatus());
+    }
+
+    @GetMapping("/user-snapshot/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SnapshotJobStatus> getUserSnapshotStatus() {
+        return ResponseEntity.ok(userSnapshotPublisher.getStatus());
+    }
+
+    // Lift a temporary lockout caused by repeated failed logins
+    @DeleteMapping("/lockouts/{email}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> unlockAccount(@PathVariable String email) {
+        if (!rateLimitService.unlockAccount(email)) {
+            ErrorResponse error = new ErrorResponse("NOT_LOCKED", "Account is not locked");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        return ResponseEntity.ok("Account unlocked successfully");
+    }
 }
@@ -2,12 +2,18 @@ package com.midlane.project_management_tool_auth_service.controller;
 
 import com.midlane.project_management_tool_auth_service.dto.*;
 import com.midlane.project_management_tool_auth_service.exception.ErrorResponse;
+import com.midlane.project_management_tool_auth_service.exception.GlobalExceptionHandler;
+import com.midlane.project_management_tool_auth_service.exception.RateLimitExceededException;
 import com.midlane.project_management_tool_auth_service.exception.OAuth2AuthenticationProcessingException;
+import com.midlane.project_management_tool_auth_service.service.RateLimitService;
 import com.midlane.project_management_tool_auth_service.service.RefreshTokenService;
+import com.midlane.project_management_tool_auth_service.service.TokenIntrospectionService;
+import com.midlane.project_management_tool_auth_service.service.TokenRevocationService;
 import com.midlane.project_management_tool_auth_service.service.UserService;
 import com.midlane.project_management_tool_auth_service.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -23,10 +29,17 @@ public class AuthController {
 
     private final UserService userService;
     private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final RateLimitService rateLimitService;
     private final JwtUtil jwtUtil;
 
+    @Value("${app.introspection.batch.max-size:100}")
+    private int maxIntrospectionBatchSize;
+
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        rateLimitService.checkRegistration(httpRequest.getRemoteAddr());
         String deviceInfo = extractDeviceInfo(httpRequest);
         return ResponseEntity.ok(userService.registerUser(request, deviceInfo));
     }
@@ -34,9 +47,15 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
+            rateLimitService.checkLogin(httpRequest.getRemoteAddr(), request.getEmail());
             String deviceInfo = extractDeviceInfo(httpRequest);
-            return ResponseEntity.ok(userService.loginUser(request, deviceInfo));
+            AuthResponse response = userService.loginUser(request, deviceInfo);
+            rateLimitService.loginSucceeded(request.getEmail());
+            return ResponseEntity.ok(response);
+        } catch (RateLimitExceededException ex) {
+            return GlobalExceptionHandler.rateLimited(ex);
         } catch (BadCredentialsException ex) {
+            rateLimitService.loginFailed(httpRequest.getRemoteAddr(), request.getEmail());
             ErrorResponse error = new ErrorResponse("INVALID_CREDENTIALS", "Invalid email or password");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         } catch (RuntimeException ex) {
@@ -57,9 +76,15 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest request, HttpServletRequest httpRequest) {
         try {
             refreshTokenService.revokeToken(request.getRefreshToken());
+
+            // Also revoke the access token used for this call so it stops working immediately
+            String authHeader = httpRequest.getHeader("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                tokenRevocationService.revokeAccessToken(authHeader.substring(7));
+            }
             return ResponseEntity.ok().build();
         } catch (RuntimeException ex) {
             ErrorResponse error = new ErrorResponse("LOGOUT_ERROR", ex.getMessage());
@@ -70,7 +95,7 @@ public class AuthController {
     @PostMapping("/logout-all")
     public ResponseEntity<?> logoutAllDevices(@RequestParam String userEmail) {
         try {
-            refreshTokenService.revokeAllUserTokens(userEmail);
+            userService.logoutAllDevices(userEmail);
             return ResponseEntity.ok().build();
         } catch (RuntimeException ex) {
             ErrorResponse error = new ErrorResponse("LOGOUT_ALL_ERROR", ex.getMessage());
@@ -84,6 +109,42 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * RFC 7662 style token introspection.
+     * POST /api/auth/initial/introspect with form parameter token=xxx and the introspection client secret header
+     */
+    @PostMapping("/introspect")
+    public ResponseEntity<?> introspect(
+            @RequestHeader(value = TokenIntrospectionService.CLIENT_SECRET_HEADER, required = false) String secret,
+            @RequestParam("token") String token) {
+        if (!tokenIntrospectionService.isClientSecretValid(secret)) {
+            return introspectionUnauthorized();
+        }
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(token));
+    }
+
+    /**
+     * Introspect several tokens in one call; results are returned in request order.
+     */
+    @PostMapping("/introspect/batch")
+    public ResponseEntity<?> introspectBatch(
+            @RequestHeader(value = TokenIntrospectionService.CLIENT_SECRET_HEADER, required = false) String secret,
+            @RequestBody BatchIntrospectionRequest request) {
+        if (!tokenIntrospectionService.isClientSecretValid(secret)) {
+            return introspectionUnauthorized();
+        }
+        if (request.getTokens() == null || request.getTokens().isEmpty()) {
+            ErrorResponse error = new ErrorResponse("VALIDATION_ERROR", "At least one token is required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        if (request.getTokens().size() > maxIntrospectionBatchSize) {
+            ErrorResponse error = new ErrorResponse("VALIDATION_ERROR",
+                    "At most " + maxIntrospectionBatchSize + " tokens can be introspected per call");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        return ResponseEntity.ok(new BatchIntrospectionResponse(tokenIntrospectionService.introspectAll(request.getTokens())));
+    }
+
     @PostMapping("/social/login")
     public ResponseEntity<?> socialLogin(@Valid @RequestBody SocialLoginRequest request) {
 
@@ -114,6 +175,11 @@ public class AuthController {
         }
     }
 
+    private static ResponseEntity<ErrorResponse> introspectionUnauthorized() {
+        ErrorResponse error = new ErrorResponse("INTROSPECTION_UNAUTHORIZED", "Invalid or missing introspection client secret");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
     private String extractDeviceInfo(HttpServletRequest request) {
         String userAgent = request.getHeader("User-Agent");
         String remoteAddr = request.getRemoteAddr();
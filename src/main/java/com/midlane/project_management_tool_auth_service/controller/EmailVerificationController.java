@@ -3,7 +3,11 @@ package com.midlane.project_management_tool_auth_service.controller;
 import com.midlane.project_management_tool_auth_service.dto.EmailVerificationRequest;
 import com.midlane.project_management_tool_auth_service.dto.EmailVerificationResponse;
 import com.midlane.project_management_tool_auth_service.exception.ErrorResponse;
+import com.midlane.project_management_tool_auth_service.exception.GlobalExceptionHandler;
+import com.midlane.project_management_tool_auth_service.exception.RateLimitExceededException;
 import com.midlane.project_management_tool_auth_service.service.EmailVerificationService;
+import com.midlane.project_management_tool_auth_service.service.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -17,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 public class EmailVerificationController {
 
     private final EmailVerificationService emailVerificationService;
+    private final RateLimitService rateLimitService;
 
     /**
      * Verify email using token sent via email
@@ -37,11 +42,15 @@ public class EmailVerificationController {
     }
 
     @PostMapping("/resend-verification")
-    public ResponseEntity<?> resendVerificationEmail(@RequestBody EmailVerificationRequest request) {
+    public ResponseEntity<?> resendVerificationEmail(@RequestBody EmailVerificationRequest request,
+                                                     HttpServletRequest httpRequest) {
         try {
+            rateLimitService.checkResendVerification(httpRequest.getRemoteAddr(), request.getEmail());
             EmailVerificationResponse response = emailVerificationService.resendVerificationEmail(request.getEmail());
             log.info("Verification email resent successfully to: {}", request.getEmail());
             return ResponseEntity.ok(response);
+        } catch (RateLimitExceededException ex) {
+            return GlobalExceptionHandler.rateLimited(ex);
         } catch (RuntimeException ex) {
             log.error("Failed to resend verification email to: {}. Error: {}",
                      request.getEmail(), ex.getMessage());
@@ -0,0 +1,57 @@
+package com.midlane.project_management_tool_auth_service.controller;
+
+import com.midlane.project_management_tool_auth_service.exception.ErrorResponse;
+import com.midlane.project_management_tool_auth_service.exception.RevocationStreamException;
+import com.midlane.project_management_tool_auth_service.service.RevocationStreamService;
+import com.midlane.project_management_tool_auth_service.service.TokenRevocationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/auth/internal/revocations")
+@RequiredArgsConstructor
+public class RevocationController {
+
+    private final TokenRevocationService tokenRevocationService;
+    private final RevocationStreamService revocationStreamService;
+
+    /**
+     * Live revocation state for peers bootstrapping a fresh journal.
+     * GET /api/auth/internal/revocations/snapshot with the shared peer secret header
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<?> getSnapshot(
+            @RequestHeader(value = TokenRevocationService.SNAPSHOT_SECRET_HEADER, required = false) String secret) {
+        if (!tokenRevocationService.isPeerSecretValid(secret)) {
+            ErrorResponse error = new ErrorResponse("SNAPSHOT_FORBIDDEN", "Invalid or missing peer secret");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(tokenRevocationService.snapshot());
+    }
+
+    /**
+     * Server-sent stream of revocation events (token epochs and revoked token ids).
+     * GET /api/auth/internal/revocations/stream; reconnect with Last-Event-ID to resume
+     */
+    // Typed return value: the emitter handler does not pick up a ResponseEntity<?>, refusals are thrown instead
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> streamRevocations(
+            @RequestHeader(value = TokenRevocationService.SNAPSHOT_SECRET_HEADER, required = false) String secret,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (!tokenRevocationService.isPeerSecretValid(secret)) {
+            throw new RevocationStreamException(HttpStatus.FORBIDDEN, "STREAM_FORBIDDEN", "Invalid or missing peer secret");
+        }
+        SseEmitter emitter = revocationStreamService.subscribe(lastEventId);
+        if (emitter == null) {
+            throw new RevocationStreamException(HttpStatus.SERVICE_UNAVAILABLE, "STREAM_UNAVAILABLE",
+                    "Too many revocation stream subscribers");
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,19 @@
+package com.midlane.project_management_tool_auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthEventDto {
+    private String eventType; // e.g., "TOKEN_EPOCH", "TOKEN_REVOKED", "USER_INVALIDATED"
+    private String subject; // User email, matches the JWT subject
+    private Long epochSecond; // Tokens issued up to and including this second are no longer valid
+    private String tokenId; // jti of a single revoked access token
+    private Long expiresAt; // Expiry (epoch second) of the revoked access token
+    private String origin; // Instance that produced the event
+}
@@ -0,0 +1,16 @@
+package com.midlane.project_management_tool_auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchIntrospectionRequest {
+    private List<String> tokens;
+}
@@ -0,0 +1,27 @@
+package com.midlane.project_management_tool_auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RFC 7662 style introspection result. Only {@code active} is set for inactive tokens.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntrospectionResponse {
+    private boolean active;
+    private String sub;
+    private String role;
+    private Long exp; // epoch seconds
+    private Long iat; // epoch seconds
+    private String jti;
+    private String tokenType;
+
+    public static IntrospectionResponse inactive() {
+        return IntrospectionResponse.builder().active(false).build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.midlane.project_management_tool_auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotJobStatus {
+    private String state; // IDLE, RUNNING, COMPLETED, FAILED
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long queued; // Snapshot rows written to the outbox
+    private long skipped; // Users deleted between listing their ids and reading them
+    private String error;
+}
@@ -0,0 +1,7 @@
+package com.midlane.project_management_tool_auth_service.dto;
+
+/**
+ * A user's verification flag together with the number of unverified, unexpired tokens they hold.
+ */
+public record VerificationStatusView(Boolean emailVerified, Long pendingTokens) {
+}
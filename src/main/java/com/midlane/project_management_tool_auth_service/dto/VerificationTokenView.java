@@ -0,0 +1,14 @@
+package com.midlane.project_management_tool_auth_service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A verification token joined with the fields of its user that verification needs, read in one query.
+ */
+public record VerificationTokenView(Long verificationId,
+                                    Long userId,
+                                    String email,
+                                    LocalDateTime tokenExpiry,
+                                    LocalDateTime verifiedAt,
+                                    Boolean emailVerified) {
+}
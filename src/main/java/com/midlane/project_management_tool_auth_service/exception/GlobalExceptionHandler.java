@@ -1,6 +1,8 @@
 package com.midlane.project_management_tool_auth_service.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,6 +17,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
     }
 
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return rateLimited(ex);
+    }
+
+    // Shared with controllers that catch RuntimeException themselves
+    public static ResponseEntity<ErrorResponse> rateLimited(RateLimitExceededException ex) {
+        HttpStatus status = ex.isAccountLocked() ? HttpStatus.LOCKED : HttpStatus.TOO_MANY_REQUESTS;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(ex.getErrorCode(), ex.getMessage()));
+    }
+
+    // Content type set explicitly: the stream request asked for text/event-stream, which ErrorResponse cannot be
+    @ExceptionHandler(RevocationStreamException.class)
+    public ResponseEntity<ErrorResponse> handleRevocationStream(RevocationStreamException ex) {
+        return ResponseEntity.status(ex.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse(ex.getErrorCode(), ex.getMessage()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex) {
         ErrorResponse error = new ErrorResponse("USER_ERROR", ex.getMessage());
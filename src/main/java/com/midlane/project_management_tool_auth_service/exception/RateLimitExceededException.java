@@ -0,0 +1,27 @@
+package com.midlane.project_management_tool_auth_service.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a caller is throttled or the target account is temporarily locked.
+ * {@link #getErrorCode()} is {@code RATE_LIMITED} or {@code ACCOUNT_LOCKED}.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    public static final String RATE_LIMITED = "RATE_LIMITED";
+    public static final String ACCOUNT_LOCKED = "ACCOUNT_LOCKED";
+
+    private final String errorCode;
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String errorCode, String message, long retryAfterSeconds) {
+        super(message);
+        this.errorCode = errorCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public boolean isAccountLocked() {
+        return ACCOUNT_LOCKED.equals(errorCode);
+    }
+}
@@ -0,0 +1,21 @@
+package com.midlane.project_management_tool_auth_service.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a revocation stream subscription is refused: a bad peer secret ({@code STREAM_FORBIDDEN}, 403)
+ * or too many subscribers ({@code STREAM_UNAVAILABLE}, 503).
+ */
+@Getter
+public class RevocationStreamException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final String errorCode;
+
+    public RevocationStreamException(HttpStatus status, String errorCode, String message) {
+        super(message);
+        this.status = status;
+        this.errorCode = errorCode;
+    }
+}
@@ -0,0 +1,39 @@
+package com.midlane.project_management_tool_auth_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit trail entry. Rows are written in batches by {@link com.midlane.project_management_tool_auth_service.service.AuditService},
+ * never through JPA; the mapping defines the table.
+ */
+@Entity
+@Table(name = "audit_events", indexes = {
+        @Index(name = "idx_audit_events_user_email", columnList = "user_email, occurred_at"),
+        @Index(name = "idx_audit_events_occurred_at", columnList = "occurred_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action_type", nullable = false, length = 32)
+    private ActionType actionType;
+
+    @Column(name = "user_email")
+    private String userEmail; // Null when the actor is not known, e.g. a logout by refresh token
+
+    @Column(name = "details", length = 1000)
+    private String details;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
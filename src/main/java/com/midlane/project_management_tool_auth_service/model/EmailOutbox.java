@@ -0,0 +1,69 @@
+package com.midlane.project_management_tool_auth_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email queued for delivery, written in the same transaction as the change that triggers it.
+ * Only the template and its parameters are stored; the message is rendered when it is sent.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey; // The same email is never queued twice
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "template", nullable = false)
+    private EmailTemplate template;
+
+    @Column(name = "locale")
+    private String locale; // BCP 47 tag selecting a localized template variant, if one exists
+
+    @Column(name = "params", nullable = false, columnDefinition = "TEXT")
+    private String params; // JSON object of template parameters
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private EmailOutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = EmailOutboxStatus.PENDING;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.midlane.project_management_tool_auth_service.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    IN_FLIGHT, // Claimed by a dispatcher until next_attempt_at
+    SENT,
+    FAILED
+}
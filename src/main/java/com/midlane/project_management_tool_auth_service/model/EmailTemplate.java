@@ -0,0 +1,8 @@
+package com.midlane.project_management_tool_auth_service.model;
+
+public enum EmailTemplate {
+    VERIFICATION,
+    WELCOME,
+    PASSWORD_RESET,
+    SIMPLE
+}
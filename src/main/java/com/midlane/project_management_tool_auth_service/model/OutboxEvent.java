@@ -0,0 +1,49 @@
+package com.midlane.project_management_tool_auth_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kafka message written in the same transaction as the change it describes.
+ * The outbox relay publishes rows in id order and deletes them once the broker has acknowledged them.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_created_at", columnList = "created_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "message_key", nullable = false)
+    private String messageKey;
+
+    @Column(name = "event_type")
+    private String eventType; // Lets the relay coalesce superseded events for the same key
+
+    @Column(name = "payload", columnDefinition = "bytea")
+    private byte[] payload; // Null for tombstones on compacted topics
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "schema_version")
+    private Integer schemaVersion; // Set for versioned binary payloads
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -40,6 +40,9 @@ public class User {
     @Column(name = "email_last_changed")
     private LocalDateTime emailLastChanged;
 
+    @Column(name = "tokens_valid_after")
+    private LocalDateTime tokensValidAfter; // Access tokens issued before this instant, or within its second, are rejected
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,43 @@
+package com.midlane.project_management_tool_auth_service.repository;
+
+import com.midlane.project_management_tool_auth_service.model.EmailOutbox;
+import com.midlane.project_management_tool_auth_service.model.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // A concurrent insert of the same idempotency key makes this a no-op (returns 0) instead of failing the caller
+    @Modifying
+    @Query(value = "INSERT INTO email_outbox (idempotency_key, recipient, template, locale, params, status, attempts, " +
+            "next_attempt_at, created_at) VALUES (:idempotencyKey, :recipient, :template, :locale, :params, 'PENDING', 0, " +
+            ":now, :now) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("idempotencyKey") String idempotencyKey, @Param("recipient") String recipient,
+                       @Param("template") String template, @Param("locale") String locale,
+                       @Param("params") String params, @Param("now") LocalDateTime now);
+
+    long countByStatus(EmailOutboxStatus status);
+
+    // Rows locked by another instance's dispatcher are skipped; in-flight rows come back once their lease has expired
+    @Query(value = "SELECT * FROM email_outbox WHERE status IN ('PENDING', 'IN_FLIGHT') AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockDue(LocalDateTime now, int limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EmailOutbox e WHERE e.id IN :ids")
+    List<EmailOutbox> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.createdAt < :cutoff")
+    int deleteByStatusAndCreatedAtBefore(EmailOutboxStatus status, LocalDateTime cutoff);
+}
@@ -1,5 +1,7 @@
 package com.midlane.project_management_tool_auth_service.repository;
 
+import com.midlane.project_management_tool_auth_service.dto.VerificationStatusView;
+import com.midlane.project_management_tool_auth_service.dto.VerificationTokenView;
 import com.midlane.project_management_tool_auth_service.model.EmailVerification;
 import com.midlane.project_management_tool_auth_service.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,6 +21,27 @@ public interface EmailVerificationRepository extends JpaRepository<EmailVerifica
 
     Optional<EmailVerification> findByUserAndVerifiedAtIsNull(User user);
 
+    @Query("SELECT new com.midlane.project_management_tool_auth_service.dto.VerificationTokenView(" +
+            "ev.verificationId, u.userId, u.email, ev.tokenExpiry, ev.verifiedAt, u.emailVerified) " +
+            "FROM EmailVerification ev JOIN ev.user u WHERE ev.verificationToken = :token")
+    Optional<VerificationTokenView> findViewByToken(@Param("token") String token);
+
+    @Query("SELECT new com.midlane.project_management_tool_auth_service.dto.VerificationStatusView(u.emailVerified, " +
+            "(SELECT COUNT(ev) FROM EmailVerification ev " +
+            "WHERE ev.user = u AND ev.verifiedAt IS NULL AND ev.tokenExpiry > :now)) " +
+            "FROM User u WHERE u.email = :email")
+    Optional<VerificationStatusView> findStatusByEmail(@Param("email") String email, @Param("now") LocalDateTime now);
+
+    // Compare-and-set: only the first of concurrent clicks on the same link gets 1 back
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE EmailVerification ev SET ev.verifiedAt = :now " +
+            "WHERE ev.verificationId = :id AND ev.verifiedAt IS NULL AND ev.tokenExpiry >= :now")
+    int markVerified(@Param("id") Long verificationId, @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.emailVerified = true, u.updatedAt = :now WHERE u.userId = :userId")
+    int markUserVerified(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
     boolean existsByVerificationToken(String verificationToken);
 
     @Modifying
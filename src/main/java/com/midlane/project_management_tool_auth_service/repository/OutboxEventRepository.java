@@ -0,0 +1,31 @@
+package com.midlane.project_management_tool_auth_service.repository;
+
+import com.midlane.project_management_tool_auth_service.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT oe FROM OutboxEvent oe ORDER BY oe.id ASC")
+    List<OutboxEvent> findOldest(Pageable pageable);
+
+    @Query("SELECT MIN(oe.createdAt) FROM OutboxEvent oe")
+    Optional<LocalDateTime> findOldestCreatedAt();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent oe WHERE oe.id IN :ids")
+    void deleteByIdIn(Collection<Long> ids);
+
+    // Transaction-scoped lock so only one instance relays at a time, keeping per-key order intact
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockId)", nativeQuery = true)
+    boolean tryAdvisoryLock(long lockId);
+}
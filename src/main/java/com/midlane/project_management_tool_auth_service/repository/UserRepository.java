@@ -1,13 +1,31 @@
 package com.midlane.project_management_tool_auth_service.repository;
 
 import com.midlane.project_management_tool_auth_service.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<User> findByTokensValidAfterAfter(LocalDateTime cutoff);
+
+    // Keyset pagination over user ids
+    @Query("SELECT u.userId FROM User u WHERE u.userId > :afterId ORDER BY u.userId")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Shared row locks: writers of these users wait until the caller's transaction ends
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT u FROM User u WHERE u.userId IN :ids ORDER BY u.userId")
+    List<User> lockAllById(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,88 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import com.midlane.project_management_tool_auth_service.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deny-list of revoked access token ids (jti).
+ * A Bloom filter answers the common "not revoked" case without touching the exact set;
+ * the exact set confirms positives and remembers each id only until its token expires.
+ */
+@Component
+@Slf4j
+public class AccessTokenDenyList {
+
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    // jti -> token expiry (epoch second)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public AccessTokenDenyList(
+            @Value("${app.revocation.deny-list.expected-entries:100000}") long expectedEntries,
+            @Value("${app.revocation.deny-list.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Add a token id; returns false if it was already present or has already expired.
+     */
+    public synchronized boolean add(String tokenId, long expiresAtEpochSecond) {
+        if (expiresAtEpochSecond <= System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        boolean added = revokedTokens.putIfAbsent(tokenId, expiresAtEpochSecond) == null;
+        if (added) {
+            filter.put(tokenId);
+        }
+        return added;
+    }
+
+    public boolean contains(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revokedTokens.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis() / 1000;
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    public Map<String, Long> snapshot() {
+        return Map.copyOf(revokedTokens);
+    }
+
+    /**
+     * Rebuild the Bloom filter from the exact set, sizing it for the larger of the configured
+     * capacity and the current entry count so the false-positive rate stays bounded.
+     */
+    public synchronized void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revokedTokens.size() * 2L), falsePositiveRate);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    // Expired ids can never match a valid token again, so drop them and shed their filter bits
+    @Scheduled(fixedRate = 60000) // Run every minute
+    public void evictExpired() {
+        long now = System.currentTimeMillis() / 1000;
+        int before = revokedTokens.size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        int removed = before - revokedTokens.size();
+        if (removed > 0) {
+            rebuild();
+            log.debug("Evicted {} expired entries from the access token deny-list", removed);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midlane.project_management_tool_auth_service.exception.ErrorResponse;
+import com.midlane.project_management_tool_auth_service.util.GradientLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds load before it reaches the Tomcat and Hikari pools.
+ * <p>
+ * Auth endpoints are grouped by what they cost, each group with its own {@link GradientLimiter}; a request over its
+ * group's limit is answered 503 immediately instead of queueing. On top of that, the groups share a total budget
+ * in priority order: password hashing may only use part of it and database writes a larger part, so a login storm
+ * cannot take the threads that refresh, public-key and introspection calls need to keep logged-in users working.
+ * Runs ahead of Spring Security, so rejected requests cost neither a JWT parse nor a user lookup.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        PASSWORD_HASHING("password-hashing", 0.5, 8),
+        DB_WRITE("db-write", 0.8, 20),
+        READ_ONLY("read-only", 1.0, 100);
+
+        final String key;
+        final double defaultShare;
+        final int defaultInitialLimit;
+
+        EndpointClass(String key, double defaultShare, int defaultInitialLimit) {
+            this.key = key;
+            this.defaultShare = defaultShare;
+            this.defaultInitialLimit = defaultInitialLimit;
+        }
+    }
+
+    private static final List<String> PASSWORD_HASHING_PATHS = List.of(
+            "/api/auth/initial/login",
+            "/api/auth/initial/register",
+            "/api/auth/user/reset-password/**",
+            "/api/auth/admin/*/reset-password");
+
+    private static final List<String> DB_WRITE_PATHS = List.of(
+            "/api/auth/initial/logout",
+            "/api/auth/initial/logout-all",
+            "/api/auth/initial/social/**",
+            "/api/auth/verify-email",
+            "/api/auth/resend-verification",
+            "/api/auth/admin/**");
+
+    private static final List<String> READ_ONLY_PATHS = List.of(
+            "/api/auth/initial/refresh",
+            "/api/auth/initial/public-key",
+            "/api/auth/initial/introspect",
+            "/api/auth/initial/introspect/batch",
+            "/api/auth/verification-status/**",
+            "/api/auth/internal/revocations/snapshot");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int totalLimit;
+    private final AtomicInteger totalInflight = new AtomicInteger();
+    private final Map<EndpointClass, GradientLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Integer> totalBudgets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Value("${app.concurrency.enabled:true}") boolean enabled,
+                                  @Value("${app.concurrency.total-limit:200}") int totalLimit) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.totalLimit = totalLimit;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "app.concurrency." + endpointClass.key + ".";
+            GradientLimiter limiter = new GradientLimiter(
+                    environment.getProperty(prefix + "initial-limit", Integer.class, endpointClass.defaultInitialLimit),
+                    environment.getProperty(prefix + "min-limit", Integer.class, 1),
+                    environment.getProperty(prefix + "max-limit", Integer.class, totalLimit),
+                    environment.getProperty("app.concurrency.tolerance", Double.class, 1.5),
+                    environment.getProperty("app.concurrency.smoothing", Double.class, 0.2),
+                    10,
+                    600);
+            limiters.put(endpointClass, limiter);
+            double share = environment.getProperty(prefix + "share", Double.class, endpointClass.defaultShare);
+            totalBudgets.put(endpointClass, Math.max(1, (int) (totalLimit * share)));
+
+            Gauge.builder("http.concurrency.limit", limiter, GradientLimiter::getLimit)
+                    .tag("class", endpointClass.key)
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.inflight", limiter, GradientLimiter::getInflight)
+                    .tag("class", endpointClass.key)
+                    .register(meterRegistry);
+            rejected.put(endpointClass, meterRegistry.counter("http.concurrency.rejected", "class", endpointClass.key));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || classify(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request.getRequestURI());
+        GradientLimiter limiter = limiters.get(endpointClass);
+
+        int inflight = limiter.tryAcquire();
+        if (inflight < 0) {
+            reject(endpointClass, response);
+            return;
+        }
+        if (totalInflight.incrementAndGet() > totalBudgets.get(endpointClass)) {
+            totalInflight.decrementAndGet();
+            limiter.cancel();
+            reject(endpointClass, response);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            totalInflight.decrementAndGet();
+            limiter.release(System.nanoTime() - startNanos, inflight);
+        }
+    }
+
+    private EndpointClass classify(String path) {
+        if (matches(PASSWORD_HASHING_PATHS, path)) {
+            return EndpointClass.PASSWORD_HASHING;
+        }
+        if (matches(READ_ONLY_PATHS, path)) {
+            return EndpointClass.READ_ONLY;
+        }
+        if (matches(DB_WRITE_PATHS, path)) {
+            return EndpointClass.DB_WRITE;
+        }
+        return null; // Long-lived streams, actuator and docs are not limited
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(EndpointClass endpointClass, HttpServletResponse response) throws IOException {
+        rejected.get(endpointClass).increment();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse("OVERLOADED", "Service is busy, please retry shortly"));
+    }
+}
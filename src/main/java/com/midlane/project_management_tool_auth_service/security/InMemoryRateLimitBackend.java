@@ -0,0 +1,253 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-instance {@link RateLimitBackend}, also the stand-in for a shared backend in tests.
+ * <p>
+ * Entries live in concurrent maps and are mutated under one of a fixed set of striped locks chosen by key hash, so
+ * requests for different keys rarely contend and no lock object is allocated per key. Failure windows use the
+ * two-bucket sliding window approximation: the previous fixed window is weighted by how much of it still overlaps
+ * the sliding one.
+ * <p>
+ * Idle entries are normally dropped by the scheduled {@link #evictIdle(long)}. When a flood of new keys pushes the
+ * maps past {@code maxEntries} between runs, a single background sweep is started instead of scanning on the
+ * request thread; if idle eviction alone cannot get back under the bound, arbitrary buckets are dropped, which at
+ * worst hands those keys a fresh allowance. Failure windows are only ever dropped once idle: evicting a live one
+ * would let a spray of junk keys reset an account's progress toward lockout, so while the table is full new keys
+ * are not tracked and {@link #recordFailure} fails closed instead.
+ */
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+        int capacity;
+        double refillPerMilli;
+    }
+
+    private static final class FailureWindow {
+        long windowStart;
+        long windowMillis;
+        int current;
+        int previous;
+    }
+
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, FailureWindow> failures = new ConcurrentHashMap<>();
+    private final Map<String, Long> locks = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * @param stripes    number of locks, rounded up to a power of two
+     * @param maxEntries bucket and failure entries kept before a background sweep is started
+     */
+    public InMemoryRateLimitBackend(int stripes, int maxEntries) {
+        this(stripes, maxEntries, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current epoch milliseconds, for {@link #now()} and background sweeps
+     */
+    public InMemoryRateLimitBackend(int stripes, int maxEntries, LongSupplier clock) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    @Override
+    public long tryConsume(String key, int capacity, double refillPerSecond, long now) {
+        if (buckets.size() >= maxEntries) {
+            sweepInBackground();
+        }
+        ReentrantLock lock = stripeFor(key);
+        lock.lock();
+        try {
+            Bucket bucket = buckets.computeIfAbsent(key, k -> {
+                Bucket created = new Bucket();
+                created.tokens = capacity;
+                created.refilledAt = now;
+                return created;
+            });
+            bucket.capacity = capacity;
+            bucket.refillPerMilli = refillPerSecond / 1000.0;
+            if (now > bucket.refilledAt) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * bucket.refillPerMilli);
+                bucket.refilledAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            if (bucket.refillPerMilli <= 0) {
+                return Long.MAX_VALUE;
+            }
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / bucket.refillPerMilli));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int recordFailure(String key, long windowMillis, long now) {
+        boolean full = failures.size() >= maxEntries;
+        if (full) {
+            sweepInBackground();
+        }
+        ReentrantLock lock = stripeFor(key);
+        lock.lock();
+        try {
+            if (full && !failures.containsKey(key)) {
+                return UNTRACKED;
+            }
+            FailureWindow window = failures.computeIfAbsent(key, k -> {
+                FailureWindow created = new FailureWindow();
+                created.windowStart = now;
+                return created;
+            });
+            window.windowMillis = windowMillis;
+            roll(window, now);
+            window.current++;
+            return estimate(window, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void resetFailures(String key) {
+        failures.remove(key);
+    }
+
+    @Override
+    public void lock(String key, long until) {
+        locks.merge(key, until, Math::max);
+    }
+
+    @Override
+    public long lockedUntil(String key, long now) {
+        Long until = locks.get(key);
+        if (until == null) {
+            return 0;
+        }
+        if (until <= now) {
+            locks.remove(key, until);
+            return 0;
+        }
+        return until;
+    }
+
+    @Override
+    public boolean unlock(String key) {
+        return locks.remove(key) != null;
+    }
+
+    @Override
+    public void evictIdle(long now) {
+        buckets.forEach((key, bucket) -> {
+            ReentrantLock lock = stripeFor(key);
+            lock.lock();
+            try {
+                // A bucket that would have refilled completely is indistinguishable from a new one
+                if (bucket.tokens + (now - bucket.refilledAt) * bucket.refillPerMilli >= bucket.capacity) {
+                    buckets.remove(key, bucket);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        failures.forEach((key, window) -> {
+            ReentrantLock lock = stripeFor(key);
+            lock.lock();
+            try {
+                if (now - window.windowStart >= 2 * window.windowMillis) {
+                    failures.remove(key, window);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        locks.entrySet().removeIf(entry -> entry.getValue() <= now);
+        trim(buckets);
+    }
+
+    int size() {
+        return buckets.size() + failures.size() + locks.size();
+    }
+
+    private void sweepInBackground() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("rate-limit-sweep").start(() -> {
+            try {
+                evictIdle(clock.getAsLong());
+            } finally {
+                sweeping.set(false);
+            }
+        });
+    }
+
+    // Only buckets are trimmed: dropping a failure window or a lockout would let an attacker carry on guessing
+    private <V> void trim(Map<String, V> entries) {
+        int excess = entries.size() - maxEntries;
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            String key = iterator.next();
+            ReentrantLock lock = stripeFor(key);
+            lock.lock();
+            try {
+                if (entries.remove(key) != null) {
+                    excess--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void roll(FailureWindow window, long now) {
+        long elapsed = now - window.windowStart;
+        if (elapsed < window.windowMillis) {
+            return;
+        }
+        if (elapsed < 2 * window.windowMillis) {
+            window.previous = window.current;
+            window.windowStart += window.windowMillis;
+        } else {
+            window.previous = 0;
+            window.windowStart = now;
+        }
+        window.current = 0;
+    }
+
+    private static int estimate(FailureWindow window, long now) {
+        double overlap = 1.0 - (double) (now - window.windowStart) / window.windowMillis;
+        return window.current + (int) Math.round(window.previous * Math.max(0, overlap));
+    }
+
+    private ReentrantLock stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & stripeMask];
+    }
+}
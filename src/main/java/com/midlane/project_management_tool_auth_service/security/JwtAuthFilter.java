@@ -1,7 +1,11 @@
 package com.midlane.project_management_tool_auth_service.security;
 
 import com.midlane.project_management_tool_auth_service.service.CustomUserDetailsService;
+import com.midlane.project_management_tool_auth_service.service.TokenRevocationService;
 import com.midlane.project_management_tool_auth_service.util.JwtUtil;
+import com.midlane.project_management_tool_auth_service.util.PhaseTimer;
+import com.midlane.project_management_tool_auth_service.util.RequestTimings;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +27,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final PhaseTimer phaseTimer;
 
     @Override
     protected void doFilterInternal(
@@ -30,41 +36,47 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        authenticate(request);
+        RequestTimings.add(RequestTimings.Phase.AUTH_FILTER, System.nanoTime() - startNanos);
+        filterChain.doFilter(request, response);
+    }
+
+    // Populates the security context from a valid bearer token; leaves it untouched otherwise
+    private void authenticate(HttpServletRequest request) {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
         final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
             return;
         }
 
         jwt = authHeader.substring(7); // Extract the token after "Bearer "
         try {
-            // Validate that this is an access token
-            if (!jwtUtil.validateAccessToken(jwt)) {
-                filterChain.doFilter(request, response);
+            // Validate that this is an unexpired access token, parsing it only once
+            Claims claims = phaseTimer.record(PhaseTimer.JWT_FILTER, "token-verify", () -> jwtUtil.verifyAccessToken(jwt));
+            if (claims == null || phaseTimer.record(PhaseTimer.JWT_FILTER, "revocation-check",
+                    () -> tokenRevocationService.isRevoked(claims))) {
                 return;
             }
 
-            userEmail = jwtUtil.extractUsername(jwt);
+            userEmail = claims.getSubject();
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                UserDetails userDetails = phaseTimer.record(PhaseTimer.JWT_FILTER, "user-load",
+                        () -> this.userDetailsService.loadUserByUsername(userEmail));
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request)
+                );
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             // Invalid token, just continue the filter chain
         }
-        filterChain.doFilter(request, response);
     }
 }
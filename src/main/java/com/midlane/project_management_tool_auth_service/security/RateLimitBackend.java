@@ -0,0 +1,60 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+/**
+ * State behind {@link com.midlane.project_management_tool_auth_service.service.RateLimitService}: token buckets,
+ * sliding-window failure counters and lockouts, all addressed by string keys.
+ * <p>
+ * {@link InMemoryRateLimitBackend} keeps the state per instance, so each node enforces the limits on its own share
+ * of the traffic. To enforce them across a cluster, register a bean backed by shared storage (e.g. Redis) instead;
+ * implementations must make each method atomic per key. Times are epoch milliseconds supplied by the caller,
+ * who reads them from {@link #now()}.
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Returned by {@link #recordFailure} when the failure cannot be counted, e.g. because the backend is full.
+     * It exceeds any limit, so callers fail closed.
+     */
+    int UNTRACKED = Integer.MAX_VALUE;
+
+    /**
+     * @return the current time in epoch milliseconds as this backend sees it
+     */
+    default long now() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Take one token from the bucket under {@code key}, creating it full if needed.
+     *
+     * @return 0 if a token was taken, otherwise the milliseconds until one will be available
+     */
+    long tryConsume(String key, int capacity, double refillPerSecond, long now);
+
+    /**
+     * Count a failure under {@code key}.
+     *
+     * @return the (approximate) number of failures within the last {@code windowMillis}, this one included, or
+     * {@link #UNTRACKED}
+     */
+    int recordFailure(String key, long windowMillis, long now);
+
+    void resetFailures(String key);
+
+    void lock(String key, long until);
+
+    /**
+     * @return the end of the lock on {@code key}, or 0 if it is not locked
+     */
+    long lockedUntil(String key, long now);
+
+    /**
+     * @return whether {@code key} was locked
+     */
+    boolean unlock(String key);
+
+    /**
+     * Drop state that no longer affects any decision, e.g. full buckets and expired locks.
+     */
+    void evictIdle(long now);
+}
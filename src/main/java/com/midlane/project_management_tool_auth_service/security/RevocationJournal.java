@@ -0,0 +1,224 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import com.midlane.project_management_tool_auth_service.util.MappedRecordLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Local, memory-mapped journal of access token revocations (token epochs and deny-listed token ids).
+ * Every revocation is appended as it is applied, so a restart replays its state from disk instead of
+ * querying the database. Compaction rewrites the journal from the live in-memory state, doubling the file (up to
+ * {@code max-capacity-bytes}) whenever that state would fill more than half of it.
+ * <p>
+ * If live state outgrows even the maximum, the journal reports itself as overflowing: entries that no longer fit
+ * are counted as lost instead of each forcing another rewrite, until a later compaction makes room again.
+ */
+@Component
+@Slf4j
+public class RevocationJournal {
+
+    public static final byte EPOCH = 1;
+    public static final byte TOKEN = 2;
+
+    /**
+     * One journal record. For {@link #EPOCH} the key is the subject and the value its epoch second;
+     * for {@link #TOKEN} the key is the jti and the value its expiry (epoch second).
+     */
+    public record Entry(byte type, String key, long value) {
+    }
+
+    private final boolean enabled;
+    private final MappedRecordLog recordLog;
+    private final long maxCapacityBytes;
+    private final Counter compactionFailures;
+    private final Counter lostEntries;
+
+    private volatile boolean overflowing;
+
+    public RevocationJournal(
+            @Value("${app.revocation.journal.enabled:true}") boolean enabled,
+            @Value("${app.revocation.journal.path:./data/revocations.journal}") String path,
+            @Value("${app.revocation.journal.capacity-bytes:67108864}") long capacityBytes,
+            @Value("${app.revocation.journal.max-capacity-bytes:1073741824}") long maxCapacityBytes,
+            MeterRegistry meterRegistry) {
+        MappedRecordLog opened = null;
+        if (enabled) {
+            try {
+                opened = new MappedRecordLog(Path.of(path), capacityBytes);
+            } catch (IOException e) {
+                log.warn("Could not open revocation journal at {}, revocations will not survive restarts: {}",
+                        path, e.getMessage());
+            }
+        }
+        this.enabled = opened != null;
+        this.recordLog = opened;
+        this.maxCapacityBytes = Math.max(capacityBytes, maxCapacityBytes);
+        this.compactionFailures = meterRegistry.counter("revocation.journal.compaction.failures");
+        this.lostEntries = meterRegistry.counter("revocation.journal.lost");
+        Gauge.builder("revocation.journal.overflowing", this, journal -> journal.overflowing ? 1 : 0)
+                .register(meterRegistry);
+        if (enabled) {
+            Gauge.builder("revocation.journal.capacity", recordLog, MappedRecordLog::capacity)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append an entry; returns false when the journal is disabled or full.
+     */
+    public boolean append(Entry entry) {
+        return enabled && recordLog.append(encode(entry));
+    }
+
+    public void replay(Consumer<Entry> consumer) {
+        if (enabled) {
+            recordLog.forEach(record -> consumer.accept(decode(record)));
+        }
+    }
+
+    public int size() {
+        return enabled ? recordLog.pendingRecords() : 0;
+    }
+
+    /**
+     * Whether the last compaction failed or could not leave room to append, so a full journal should not be
+     * compacted again on every append.
+     */
+    public boolean isOverflowing() {
+        return overflowing;
+    }
+
+    /**
+     * Count a revocation that is in effect but could not be journaled, so will not survive a restart.
+     */
+    public void recordLost() {
+        lostEntries.increment();
+    }
+
+    /**
+     * Replace the journal contents with the given live entries, dropping everything superseded or expired, and grow
+     * the file if they would fill more than half of it.
+     *
+     * @return false if the entries could not be written; the previous contents are kept
+     */
+    public boolean compact(List<Entry> liveEntries) {
+        if (!enabled) {
+            return true;
+        }
+        List<byte[]> records = new ArrayList<>(liveEntries.size());
+        for (Entry entry : liveEntries) {
+            records.add(encode(entry));
+        }
+        long required = MappedRecordLog.requiredCapacity(records);
+        long previousCapacity = recordLog.capacity();
+        long capacity = previousCapacity;
+        while (required > capacity / 2 && capacity < maxCapacityBytes) {
+            capacity = Math.min(capacity * 2, maxCapacityBytes);
+        }
+        if (required > capacity) {
+            return compactionFailed("live entries need " + required + " bytes, the maximum is " + maxCapacityBytes);
+        }
+        try {
+            int before = recordLog.pendingRecords();
+            recordLog.rewrite(records, capacity);
+            if (capacity != previousCapacity) {
+                log.info("Grew revocation journal from {} to {} bytes", previousCapacity, capacity);
+            }
+            log.info("Compacted revocation journal from {} to {} entries", before, records.size());
+        } catch (IOException e) {
+            return compactionFailed(e.getMessage());
+        }
+
+        boolean full = required > capacity / 2;
+        if (full && !overflowing) {
+            log.error("Revocation journal is over half full at its maximum of {} bytes; revocations that do not fit "
+                    + "will not survive a restart until expired entries make room", maxCapacityBytes);
+        } else if (!full && overflowing) {
+            log.info("Revocation journal has room again");
+        }
+        overflowing = full;
+        return true;
+    }
+
+    private boolean compactionFailed(String reason) {
+        compactionFailures.increment();
+        if (!overflowing) {
+            log.error("Failed to compact revocation journal, revocations that do not fit will not survive a restart: {}",
+                    reason);
+        }
+        overflowing = true;
+        return false;
+    }
+
+    /**
+     * Serialize entries into the framed snapshot format served to peers: {@code [int length][record]...}.
+     */
+    public static byte[] encodeSnapshot(List<Entry> entries) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Entry entry : entries) {
+            byte[] record = encode(entry);
+            out.writeBytes(ByteBuffer.allocate(4).putInt(record.length).array());
+            out.writeBytes(record);
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Entry> decodeSnapshot(byte[] snapshot) {
+        List<Entry> entries = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+        while (buffer.remaining() >= 4) {
+            byte[] record = new byte[buffer.getInt()];
+            buffer.get(record);
+            entries.add(decode(record));
+        }
+        return entries;
+    }
+
+    // Record layout: [byte type][long value][utf-8 key]
+    private static byte[] encode(Entry entry) {
+        byte[] key = entry.key().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(9 + key.length)
+                .put(entry.type())
+                .putLong(entry.value())
+                .put(key)
+                .array();
+    }
+
+    private static Entry decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        byte type = buffer.get();
+        long value = buffer.getLong();
+        String key = new String(record, 9, record.length - 9, StandardCharsets.UTF_8);
+        return new Entry(type, key, value);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (enabled) {
+            try {
+                recordLog.close();
+            } catch (IOException e) {
+                log.warn("Failed to close revocation journal: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import com.midlane.project_management_tool_auth_service.util.RequestTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opt-in per-request phase breakdown. While a request runs, the instrumented phases (JWT filter, repository calls,
+ * password hashing, token signing, Kafka sends, email enqueueing) add their durations to the thread's
+ * {@link RequestTimings}; the totals go out as a {@code Server-Timing} header (added just before the body is
+ * written, see {@code ServerTimingResponseAdvice}) and as one logfmt line on the {@code access} logger.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+
+    @Value("${app.server-timing.enabled:false}")
+    private boolean enabled;
+
+    // Requests at least this slow are logged at INFO, the rest at DEBUG
+    @Value("${app.server-timing.access-log-threshold-ms:0}")
+    private long accessLogThresholdMs;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            timings.stop();
+            boolean slow = timings.elapsedNanos() >= accessLogThresholdMs * 1_000_000L;
+            if (slow ? accessLog.isInfoEnabled() : accessLog.isDebugEnabled()) {
+                String line = "method=" + request.getMethod()
+                        + " path=" + request.getRequestURI()
+                        + " status=" + response.getStatus()
+                        + " " + timings.toLogFields();
+                if (slow) {
+                    accessLog.info(line);
+                } else {
+                    accessLog.debug(line);
+                }
+            }
+        }
+    }
+}
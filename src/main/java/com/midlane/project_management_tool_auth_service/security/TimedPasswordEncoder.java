@@ -0,0 +1,63 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import com.midlane.project_management_tool_auth_service.util.JfrEvents;
+import com.midlane.project_management_tool_auth_service.util.RequestTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Records every hash ({@code encode}) and check ({@code matches}) as {@code auth.password.hash} and as a
+ * Flight Recorder event, wherever it is called from (including the authentication provider's password check);
+ * with bcrypt this is usually the most expensive phase of login and registration.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final String algorithm;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.algorithm = delegate.getClass().getSimpleName().replace("PasswordEncoder", "").toLowerCase();
+        this.encodeTimer = meterRegistry.timer("auth.password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("auth.password.hash", "operation", "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        JfrEvents.PasswordHash event = new JfrEvents.PasswordHash();
+        event.begin();
+        long startNanos = System.nanoTime();
+        String encoded = encodeTimer.record(() -> delegate.encode(rawPassword));
+        RequestTimings.add(RequestTimings.Phase.HASH, System.nanoTime() - startNanos);
+        commit(event, "encode", false);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        JfrEvents.PasswordHash event = new JfrEvents.PasswordHash();
+        event.begin();
+        long startNanos = System.nanoTime();
+        boolean matches = Boolean.TRUE.equals(matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+        RequestTimings.add(RequestTimings.Phase.HASH, System.nanoTime() - startNanos);
+        commit(event, "matches", matches);
+        return matches;
+    }
+
+    private void commit(JfrEvents.PasswordHash event, String operation, boolean matched) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.algorithm = algorithm;
+            event.matched = matched;
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
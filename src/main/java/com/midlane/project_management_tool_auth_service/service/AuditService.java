@@ -0,0 +1,195 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midlane.project_management_tool_auth_service.model.ActionType;
+import com.midlane.project_management_tool_auth_service.model.AuditEvent;
+import com.midlane.project_management_tool_auth_service.util.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records audit events without putting a database write on the caller's path.
+ * <p>
+ * Callers only add the event to a lock-free ring buffer (after commit, when called inside a transaction, so
+ * rolled-back work leaves no trace). A single writer thread drains the buffer and writes the events in JDBC
+ * batches, or publishes them to Kafka. When the buffer is full the configured policy applies: {@code drop}
+ * counts and discards the event, {@code block} makes the caller wait up to a timeout for room.
+ */
+@Service
+@Slf4j
+public class AuditService {
+
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final KafkaProducerService kafkaProducerService;
+    private final ObjectMapper objectMapper;
+
+    private final Counter recordedCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.sink:jdbc}") // jdbc | kafka
+    private String sink;
+
+    @Value("${app.audit.backpressure:drop}") // drop | block
+    private String backpressure;
+
+    @Value("${app.audit.block-timeout-ms:200}")
+    private long blockTimeoutMs;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${kafka.topics.audit-events:audit.events}")
+    private String auditTopic;
+
+    public AuditService(JdbcTemplate jdbcTemplate,
+                        KafkaProducerService kafkaProducerService,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.audit.buffer-capacity:65536}") int bufferCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.kafkaProducerService = kafkaProducerService;
+        this.objectMapper = objectMapper;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.recordedCounter = meterRegistry.counter("audit.events.recorded");
+        this.droppedCounter = meterRegistry.counter("audit.events.dropped");
+        this.writtenCounter = meterRegistry.counter("audit.events.written");
+        this.failedCounter = meterRegistry.counter("audit.events.failed");
+        this.batchSizes = DistributionSummary.builder("audit.write.batch").register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, MpscRingBuffer::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startWriter() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+    }
+
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public void record(ActionType actionType, String userEmail, String details) {
+        if (!enabled) {
+            return;
+        }
+        AuditEvent event = AuditEvent.builder()
+                .actionType(actionType)
+                .userEmail(userEmail)
+                .details(details != null && details.length() > 1000 ? details.substring(0, 1000) : details)
+                .occurredAt(LocalDateTime.now())
+                .build();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (buffer.offer(event)) {
+            recordedCounter.increment();
+            return;
+        }
+        if ("block".equalsIgnoreCase(backpressure)) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            LockSupport.unpark(writer);
+            while (System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                if (buffer.offer(event)) {
+                    recordedCounter.increment();
+                    return;
+                }
+            }
+        }
+        droppedCounter.increment();
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            boolean stopping = !running;
+            buffer.drain(batch::add, batchSize);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+                if (buffer.size() > 0) {
+                    continue; // Keep draining while there is a backlog
+                }
+            }
+            if (stopping) {
+                return; // Everything recorded before shutdown has been written
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        batchSizes.record(batch.size());
+        try {
+            if ("kafka".equalsIgnoreCase(sink)) {
+                for (AuditEvent event : batch) {
+                    kafkaProducerService.sendMessageWithKey(auditTopic,
+                            event.getUserEmail() != null ? event.getUserEmail() : event.getActionType().name(),
+                            objectMapper.writeValueAsString(event));
+                }
+            } else {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO audit_events (action_type, user_email, details, occurred_at) VALUES (?, ?, ?, ?)",
+                        batch, batch.size(), (statement, event) -> {
+                            statement.setString(1, event.getActionType().name());
+                            statement.setString(2, event.getUserEmail());
+                            statement.setString(3, event.getDetails());
+                            statement.setTimestamp(4, Timestamp.valueOf(event.getOccurredAt()));
+                        });
+            }
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+        }
+    }
+}
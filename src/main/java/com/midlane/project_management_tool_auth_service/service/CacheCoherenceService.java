@@ -0,0 +1,164 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midlane.project_management_tool_auth_service.config.KafkaConfig;
+import com.midlane.project_management_tool_auth_service.dto.AuthEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Keeps the local caches of every instance coherent through the auth events topic.
+ * <p>
+ * Each instance consumes the topic with its own consumer group, so every instance sees every event: revocations
+ * are applied to {@link TokenRevocationService} and user invalidations evict the user details cache. If an event
+ * arrives later than the configured maximum lag, other invalidations may have been missed too, so the whole user
+ * cache is dropped rather than trusted.
+ * <p>
+ * The group never commits offsets. On assignment the consumer rewinds by one access token lifetime instead, which
+ * replays the revocations issued while this instance was down (older ones only concern expired tokens) on top of
+ * the state restored at startup; applying an event twice is harmless.
+ */
+@Service
+@Slf4j
+public class CacheCoherenceService implements ConsumerSeekAware {
+
+    public static final String USER_INVALIDATED_EVENT = "USER_INVALIDATED";
+
+    private final KafkaProducerService kafkaProducerService;
+    private final ObjectMapper objectMapper;
+    private final TokenRevocationService tokenRevocationService;
+    private final CustomUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+
+    private final Timer lagTimer;
+    private final Counter lagExceededCounter;
+    private final Counter malformedCounter;
+
+    @Value("${kafka.topics.auth-events:auth.events}")
+    private String authEventsTopic;
+
+    @Value("${app.instance-id:local}")
+    private String instanceId;
+
+    @Value("${app.cache.invalidation.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${jwt.access-token.expiration:900000}") // 15 minutes
+    private long accessTokenExpiration;
+
+    // Events produced before the consumer joined are catch-up: the cache started empty, so their lag is meaningless
+    private volatile long liveFrom = Long.MAX_VALUE;
+
+    public CacheCoherenceService(KafkaProducerService kafkaProducerService,
+                                 ObjectMapper objectMapper,
+                                 TokenRevocationService tokenRevocationService,
+                                 CustomUserDetailsService userDetailsService,
+                                 MeterRegistry meterRegistry) {
+        this.kafkaProducerService = kafkaProducerService;
+        this.objectMapper = objectMapper;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userDetailsService = userDetailsService;
+        this.meterRegistry = meterRegistry;
+        this.lagTimer = Timer.builder("auth.events.lag")
+                .description("Time from producing an auth event until this instance applied it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lagExceededCounter = meterRegistry.counter("auth.events.lag.exceeded");
+        this.malformedCounter = meterRegistry.counter("auth.events.malformed");
+    }
+
+    /**
+     * Evict the user from the local cache and tell the other instances to do the same. Inside a transaction this
+     * happens after commit, so no instance can re-cache the state that is being replaced.
+     */
+    public void invalidateUser(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndBroadcast(email);
+                }
+            });
+        } else {
+            evictAndBroadcast(email);
+        }
+    }
+
+    private void evictAndBroadcast(String email) {
+        userDetailsService.evict(email);
+        try {
+            AuthEventDto event = AuthEventDto.builder()
+                    .eventType(USER_INVALIDATED_EVENT)
+                    .subject(email)
+                    .origin(instanceId)
+                    .build();
+            kafkaProducerService.sendMessageWithKey(authEventsTopic, email, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.error("Failed to broadcast user invalidation", e);
+        }
+    }
+
+    // Every instance consumes with its own, non-committing group so each one sees every event
+    @KafkaListener(
+            topics = "${kafka.topics.auth-events:auth.events}",
+            groupId = "${spring.application.name}-${app.instance-id:local}",
+            containerFactory = KafkaConfig.BROADCAST_LISTENER_FACTORY,
+            properties = {"enable.auto.commit=false", "auto.offset.reset=latest"}
+    )
+    public void onAuthEvent(ConsumerRecord<String, String> record) {
+        AuthEventDto event;
+        try {
+            event = objectMapper.readValue(record.value(), AuthEventDto.class);
+        } catch (Exception e) {
+            malformedCounter.increment();
+            log.warn("Ignoring malformed auth event: {}", e.getMessage());
+            return;
+        }
+
+        if (record.timestamp() >= liveFrom) {
+            checkLag(record);
+        }
+
+        if (USER_INVALIDATED_EVENT.equals(event.getEventType())) {
+            if (event.getSubject() != null && !instanceId.equals(event.getOrigin())) {
+                userDetailsService.evict(event.getSubject());
+            }
+        } else {
+            tokenRevocationService.applyAuthEvent(event);
+        }
+        meterRegistry.counter("auth.events.consumed", "type", String.valueOf(event.getEventType())).increment();
+    }
+
+    private void checkLag(ConsumerRecord<String, String> record) {
+        long lagMs = Math.max(0, System.currentTimeMillis() - record.timestamp());
+        lagTimer.record(Duration.ofMillis(lagMs));
+        if (lagMs > maxLagMs) {
+            lagExceededCounter.increment();
+            log.warn("Auth event arrived {} ms after it was produced, dropping the user details cache", lagMs);
+            userDetailsService.evictAll();
+        }
+    }
+
+    // Rewind to the oldest event that can still concern a live token; nothing is committed to resume from
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        long now = System.currentTimeMillis();
+        if (liveFrom == Long.MAX_VALUE) {
+            liveFrom = now;
+        }
+        callback.seekToTimestamp(assignments.keySet(), now - accessTokenExpiration);
+    }
+}
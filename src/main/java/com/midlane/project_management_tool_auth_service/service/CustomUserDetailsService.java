@@ -2,23 +2,65 @@ package com.midlane.project_management_tool_auth_service.service;
 
 import com.midlane.project_management_tool_auth_service.model.User;
 import com.midlane.project_management_tool_auth_service.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Loads users for authentication, with a local cache in front of the database.
+ * <p>
+ * Entries are evicted when the user changes, on this instance directly and on the others through
+ * {@link CacheCoherenceService}; the TTL bounds staleness if an invalidation is ever missed.
+ */
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
+    // Only the fields are cached: Spring Security erases the password of the UserDetails instances it is handed
+    private record CachedUser(String email, String passwordHash, String role, long expiresAtNanos) {
+    }
+
     private final UserRepository userRepository;
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    // Bumped on every eviction so a load that raced with one does not cache what it read
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.cache.user-details.ttl-ms:300000}") long ttlMs,
+                                    @Value("${app.cache.user-details.max-entries:50000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("user.details.cache", "result", "hit");
+        this.misses = meterRegistry.counter("user.details.cache", "result", "miss");
+        Gauge.builder("user.details.cache.size", cache, Map::size).register(meterRegistry);
+    }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        CachedUser cached = cache.get(email);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            hits.increment();
+            return toUserDetails(cached);
+        }
+        misses.increment();
+
+        long loadedAtGeneration = generation.get();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
@@ -29,10 +71,34 @@ public class CustomUserDetailsService implements UserDetailsService {
             password = "{noop}"; // No-op password encoder prefix for empty password
         }
 
+        CachedUser loaded = new CachedUser(user.getEmail(), password, user.getRole().name(), System.nanoTime() + ttlNanos);
+        if (ttlNanos > 0 && generation.get() == loadedAtGeneration) {
+            if (cache.size() >= maxEntries) {
+                cache.clear(); // Crude but bounded; the working set refills on demand
+            }
+            cache.put(email, loaded);
+            if (generation.get() != loadedAtGeneration) {
+                cache.remove(email, loaded); // An eviction slipped in between the check and the put
+            }
+        }
+        return toUserDetails(loaded);
+    }
+
+    public void evict(String email) {
+        generation.incrementAndGet();
+        cache.remove(email);
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private UserDetails toUserDetails(CachedUser user) {
         return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(password)
-                .authorities("ROLE_" + user.getRole().name())
+                .username(user.email())
+                .password(user.passwordHash())
+                .authorities("ROLE_" + user.role())
                 .build();
     }
 }
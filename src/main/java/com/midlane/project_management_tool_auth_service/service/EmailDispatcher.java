@@ -0,0 +1,274 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.config.AsyncConfig;
+import com.midlane.project_management_tool_auth_service.model.EmailOutbox;
+import com.midlane.project_management_tool_auth_service.model.EmailOutboxStatus;
+import com.midlane.project_management_tool_auth_service.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers queued emails from the email outbox.
+ * <p>
+ * Each run claims a batch of due rows in a short transaction (skipping rows another instance has locked) by marking
+ * them in flight with a lease in {@code next_attempt_at}. The batch is then split across a few pooled SMTP
+ * connections on the mail executor, outside any transaction, and the outcome is recorded in a second transaction:
+ * sent rows are marked sent, transient failures are retried with exponential backoff, and rejected recipients or
+ * exhausted retries are marked failed. Rows without an outcome (batch timeout, crashed instance) are claimed again
+ * once their lease expires, so delivery is at-least-once.
+ */
+@Service
+@Slf4j
+public class EmailDispatcher {
+
+    private record SendOutcome(boolean sent, boolean permanent, String error) {
+    }
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final SmtpTransportPool transportPool;
+    private final ExecutorService mailExecutor;
+    private final TransactionTemplate transaction;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter rejectedCounter;
+    private final Counter exhaustedCounter;
+    private final Timer sendTimer;
+    private final DistributionSummary batchSizes;
+    private final AtomicLong pending = new AtomicLong();
+
+    @Value("${app.mail.dispatcher.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.mail.dispatcher.connections:4}")
+    private int connections;
+
+    @Value("${app.mail.dispatcher.batch-timeout-ms:120000}")
+    private long batchTimeoutMs;
+
+    // Must exceed the batch timeout, or a slow batch could be claimed again while it is still sending
+    @Value("${app.mail.dispatcher.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.mail.dispatcher.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.dispatcher.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${app.mail.dispatcher.max-backoff-ms:3600000}") // 1 hour
+    private long maxBackoffMs;
+
+    @Value("${app.mail.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public EmailDispatcher(EmailOutboxRepository emailOutboxRepository,
+                           EmailService emailService,
+                           SmtpTransportPool transportPool,
+                           @Qualifier(AsyncConfig.MAIL_EXECUTOR) ExecutorService mailExecutor,
+                           MeterRegistry meterRegistry,
+                           PlatformTransactionManager transactionManager) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.transportPool = transportPool;
+        this.mailExecutor = mailExecutor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.sentCounter = meterRegistry.counter("mail.sent");
+        this.retriedCounter = meterRegistry.counter("mail.retried");
+        this.rejectedCounter = meterRegistry.counter("mail.failed", "reason", "rejected");
+        this.exhaustedCounter = meterRegistry.counter("mail.failed", "reason", "exhausted");
+        this.sendTimer = meterRegistry.timer("mail.send");
+        this.batchSizes = DistributionSummary.builder("mail.dispatch.batch").register(meterRegistry);
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+    }
+
+    // Not transactional: no row locks or connection are held while waiting on SMTP
+    @Scheduled(fixedDelayString = "${app.mail.dispatcher.interval-ms:1000}")
+    public void dispatch() {
+        // Millisecond precision so the lease read back from the database compares equal
+        LocalDateTime leaseUntil = LocalDateTime.now().plus(Duration.ofMillis(leaseMs)).truncatedTo(ChronoUnit.MILLIS);
+        List<EmailOutbox> claimed = transaction.execute(tx -> claim(leaseUntil));
+        if (claimed != null && !claimed.isEmpty()) {
+            batchSizes.record(claimed.size());
+            Map<Long, SendOutcome> outcomes = sendAll(claimed);
+            transaction.executeWithoutResult(tx -> record(outcomes, leaseUntil));
+        }
+        pending.set(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+    }
+
+    private List<EmailOutbox> claim(LocalDateTime leaseUntil) {
+        List<EmailOutbox> due = emailOutboxRepository.lockDue(LocalDateTime.now(), batchSize);
+        for (EmailOutbox email : due) {
+            email.setStatus(EmailOutboxStatus.IN_FLIGHT);
+            email.setNextAttemptAt(leaseUntil);
+        }
+        return due;
+    }
+
+    private void record(Map<Long, SendOutcome> outcomes, LocalDateTime leaseUntil) {
+        if (outcomes.isEmpty()) {
+            return; // The whole batch timed out; its rows come back when the lease expires
+        }
+        for (EmailOutbox email : emailOutboxRepository.lockAllById(outcomes.keySet())) {
+            // Another run claimed the row after our lease expired; its outcome wins
+            if (email.getStatus() == EmailOutboxStatus.IN_FLIGHT && leaseUntil.equals(email.getNextAttemptAt())) {
+                apply(email, outcomes.get(email.getId()));
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000) // Run every hour
+    @Transactional
+    public void purgeSent() {
+        int deleted = emailOutboxRepository.deleteByStatusAndCreatedAtBefore(
+                EmailOutboxStatus.SENT, LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} sent emails from the outbox", deleted);
+        }
+    }
+
+    private Map<Long, SendOutcome> sendAll(List<EmailOutbox> due) {
+        int chunkCount = Math.min(connections, due.size());
+        List<List<EmailOutbox>> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.add(new ArrayList<>());
+        }
+        for (int i = 0; i < due.size(); i++) {
+            chunks.get(i % chunkCount).add(due.get(i));
+        }
+
+        List<CompletableFuture<Map<Long, SendOutcome>>> futures = new ArrayList<>(chunkCount);
+        for (List<EmailOutbox> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> sendOverOneConnection(chunk), mailExecutor));
+        }
+
+        Map<Long, SendOutcome> outcomes = new HashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        for (CompletableFuture<Map<Long, SendOutcome>> future : futures) {
+            try {
+                outcomes.putAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Email batch did not complete: {}", e.getMessage());
+            }
+        }
+        return outcomes;
+    }
+
+    // Runs on the mail executor; reads the claimed rows but leaves every change to the recording transaction
+    private Map<Long, SendOutcome> sendOverOneConnection(List<EmailOutbox> chunk) {
+        Map<Long, SendOutcome> outcomes = new HashMap<>();
+        SmtpTransportPool.PooledTransport pooled = null;
+        try {
+            for (EmailOutbox email : chunk) {
+                if (pooled == null) {
+                    try {
+                        pooled = transportPool.borrow();
+                    } catch (MessagingException e) {
+                        // Cannot reach the SMTP server: everything left in this chunk is retried later
+                        for (EmailOutbox remaining : chunk) {
+                            outcomes.putIfAbsent(remaining.getId(), new SendOutcome(false, false, e.getMessage()));
+                        }
+                        return outcomes;
+                    }
+                }
+                long started = System.nanoTime();
+                try {
+                    MimeMessage message = emailService.render(email);
+                    pooled.transport().sendMessage(message, message.getAllRecipients());
+                    pooled.messageSent();
+                    outcomes.put(email.getId(), new SendOutcome(true, false, null));
+                } catch (SendFailedException e) {
+                    // The server rejected the recipient; the connection itself is fine
+                    outcomes.put(email.getId(), new SendOutcome(false, true, e.getMessage()));
+                } catch (MessagingException e) {
+                    outcomes.put(email.getId(), new SendOutcome(false, false, e.getMessage()));
+                    transportPool.release(pooled, true);
+                    pooled = null;
+                } catch (Exception e) {
+                    // Unrenderable row (e.g. corrupt params); retrying will not help
+                    outcomes.put(email.getId(), new SendOutcome(false, true, e.getMessage()));
+                } finally {
+                    sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            if (pooled != null) {
+                transportPool.release(pooled, false);
+            }
+        }
+        return outcomes;
+    }
+
+    private void apply(EmailOutbox email, SendOutcome outcome) {
+        email.setAttempts(email.getAttempts() + 1);
+        if (outcome.sent()) {
+            email.setStatus(EmailOutboxStatus.SENT);
+            email.setSentAt(LocalDateTime.now());
+            email.setLastError(null);
+            sentCounter.increment();
+            return;
+        }
+
+        email.setLastError(truncate(outcome.error()));
+        if (outcome.permanent()) {
+            email.setStatus(EmailOutboxStatus.FAILED);
+            rejectedCounter.increment();
+            log.warn("Email {} to {} failed permanently: {}", email.getId(), email.getRecipient(), outcome.error());
+        } else if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(EmailOutboxStatus.FAILED);
+            exhaustedCounter.increment();
+            log.warn("Email {} to {} failed after {} attempts: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), outcome.error());
+        } else {
+            email.setStatus(EmailOutboxStatus.PENDING);
+            email.setNextAttemptAt(LocalDateTime.now().plus(backoff(email.getAttempts())));
+            retriedCounter.increment();
+        }
+    }
+
+    // Exponential backoff with +/-20% jitter so a burst of failures does not retry in lockstep
+    private Duration backoff(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, maxBackoffMs);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (delay * jitter));
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
@@ -0,0 +1,111 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.model.EmailTemplate;
+import com.midlane.project_management_tool_auth_service.util.CompiledTemplate;
+import jakarta.activation.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Email templates, compiled once at startup from {@code classpath:templates/email/<name>[_<locale>].html}.
+ * <p>
+ * Each file starts with a {@code subject: ...} line and a blank line, followed by the HTML body. Locale variants
+ * are optional: lookup tries the full language tag ({@code pt-BR}), then the language ({@code pt}), then the
+ * default file.
+ */
+@Component
+@Slf4j
+public class EmailTemplateRegistry {
+
+    private static final String LOCATION = "classpath*:templates/email/*.html";
+    private static final String SUBJECT_PREFIX = "subject:";
+
+    /**
+     * A compiled template: a subject and a body with slots.
+     */
+    public record CompiledEmail(CompiledTemplate subject, CompiledTemplate body) {
+    }
+
+    private final Map<String, CompiledEmail> templates = new HashMap<>();
+
+    public EmailTemplateRegistry() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String fileName = resource.getFilename();
+            String key = fileName.substring(0, fileName.length() - ".html".length());
+            templates.put(key, parse(key, resource.getContentAsString(StandardCharsets.UTF_8)));
+        }
+        for (EmailTemplate template : EmailTemplate.values()) {
+            if (template != EmailTemplate.SIMPLE && !templates.containsKey(baseName(template))) {
+                throw new IllegalStateException("Missing email template: " + baseName(template) + ".html");
+            }
+        }
+        log.info("Compiled {} email templates", templates.size());
+    }
+
+    public CompiledEmail get(EmailTemplate template, String languageTag) {
+        String base = baseName(template);
+        if (languageTag != null && !languageTag.isBlank()) {
+            Locale locale = Locale.forLanguageTag(languageTag);
+            CompiledEmail localized = templates.get(base + "_" + locale.toLanguageTag());
+            if (localized == null) {
+                localized = templates.get(base + "_" + locale.getLanguage());
+            }
+            if (localized != null) {
+                return localized;
+            }
+        }
+        return templates.get(base);
+    }
+
+    /**
+     * A mail data source that streams the rendered body, so the MIME writer copies fragments straight to the wire.
+     */
+    public static DataSource htmlBody(CompiledTemplate body, Map<String, String> params) {
+        return new DataSource() {
+            @Override
+            public InputStream getInputStream() {
+                return body.open(params);
+            }
+
+            @Override
+            public OutputStream getOutputStream() {
+                throw new UnsupportedOperationException("Rendered templates are read-only");
+            }
+
+            @Override
+            public String getContentType() {
+                return "text/html; charset=UTF-8";
+            }
+
+            @Override
+            public String getName() {
+                return "body.html";
+            }
+        };
+    }
+
+    // VERIFICATION -> verification, PASSWORD_RESET -> password-reset
+    private static String baseName(EmailTemplate template) {
+        return template.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static CompiledEmail parse(String key, String source) {
+        int lineEnd = source.indexOf('\n');
+        if (!source.startsWith(SUBJECT_PREFIX) || lineEnd < 0) {
+            throw new IllegalStateException("Email template " + key + " must start with a '" + SUBJECT_PREFIX + "' line");
+        }
+        String subject = source.substring(SUBJECT_PREFIX.length(), lineEnd).trim();
+        String body = source.substring(lineEnd + 1).stripLeading();
+        return new CompiledEmail(CompiledTemplate.compile(subject), CompiledTemplate.compile(body));
+    }
+}
@@ -2,20 +2,27 @@ package com.midlane.project_management_tool_auth_service.service;
 
 import com.midlane.project_management_tool_auth_service.dto.EmailVerificationRequest;
 import com.midlane.project_management_tool_auth_service.dto.EmailVerificationResponse;
+import com.midlane.project_management_tool_auth_service.dto.VerificationStatusView;
+import com.midlane.project_management_tool_auth_service.dto.VerificationTokenView;
+import com.midlane.project_management_tool_auth_service.model.ActionType;
 import com.midlane.project_management_tool_auth_service.model.EmailVerification;
 import com.midlane.project_management_tool_auth_service.model.User;
 import com.midlane.project_management_tool_auth_service.repository.EmailVerificationRepository;
 import com.midlane.project_management_tool_auth_service.repository.UserRepository;
+import com.midlane.project_management_tool_auth_service.util.SignedVerificationToken;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 @Service
@@ -26,6 +33,8 @@ public class EmailVerificationService {
     private final EmailVerificationRepository emailVerificationRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final AuditService auditService;
+    private final String rsaPrivateKey;
 
     @Value("${app.email.verification.expiry-hours:24}")
     private int expiryHours;
@@ -33,12 +42,42 @@ public class EmailVerificationService {
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
 
-    @Async
+    // Stateless mode: links carry a signed token instead of a row in email_verifications
+    @Value("${app.email.verification.stateless:false}")
+    private boolean stateless;
+
+    // HMAC key for signed tokens; derived from the (shared) RSA signing key when not set
+    @Value("${app.email.verification.signing-key:}")
+    private String signingKey;
+
+    private byte[] tokenKey;
+
+    @PostConstruct
+    void initTokenKey() throws NoSuchAlgorithmException {
+        String secret = signingKey.isBlank() ? "email-verification:" + rsaPrivateKey : signingKey;
+        tokenKey = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create a fresh verification token and queue the email in the same transaction; the SMTP send happens later,
+     * in {@link EmailDispatcher}.
+     */
+    @Transactional
     public void sendVerificationEmail(EmailVerificationRequest request) {
         try {
             User user = userRepository.findByEmail(request.getEmail())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
+            if (stateless) {
+                String token = SignedVerificationToken.issue(tokenKey, new SignedVerificationToken.Payload(
+                        user.getUserId(),
+                        toEpochSecond(user.getEmailLastChanged()),
+                        toEpochSecond(LocalDateTime.now().plusHours(expiryHours))));
+                emailService.sendVerificationEmail(user.getEmail(), frontendUrl + "/verify-email?token=" + token);
+                log.info("Verification email queued for: {}", user.getEmail());
+                return;
+            }
+
             // Delete any existing unverified tokens for this user
             emailVerificationRepository.deleteUnverifiedTokensByUser(user);
 
@@ -57,7 +96,7 @@ public class EmailVerificationService {
             String verificationLink = frontendUrl + "/verify-email?token=" + token;
             emailService.sendVerificationEmail(user.getEmail(), verificationLink);
 
-            log.info("Verification email sent to: {}", user.getEmail());
+            log.info("Verification email queued for: {}", user.getEmail());
         } catch (Exception e) {
             log.error("Failed to send verification email to: {}", request.getEmail(), e);
             throw new RuntimeException("Failed to send verification email");
@@ -66,37 +105,93 @@ public class EmailVerificationService {
 
     @Transactional
     public EmailVerificationResponse verifyEmail(String token) {
+        // Signed tokens are accepted whatever the current mode, so switching modes does not break sent links
+        if (SignedVerificationToken.isSignedToken(token)) {
+            return verifySignedToken(token);
+        }
         try {
-            EmailVerification verification = emailVerificationRepository.findByVerificationToken(token)
+            // One read for the token and its user, then a conditional update per table; no entity is loaded
+            VerificationTokenView verification = emailVerificationRepository.findViewByToken(token)
                     .orElseThrow(() -> new RuntimeException("Invalid verification token"));
 
+            LocalDateTime now = LocalDateTime.now();
+
             // Check if token is expired
-            if (verification.getTokenExpiry().isBefore(LocalDateTime.now())) {
+            if (verification.tokenExpiry().isBefore(now)) {
                 throw new RuntimeException("Verification token has expired");
             }
 
             // Check if already verified
-            if (verification.getVerifiedAt() != null) {
-                return EmailVerificationResponse.builder()
-                        .success(true)
-                        .message("Email is already verified")
-                        .email(verification.getUser().getEmail())
-                        .verified(true)
-                        .hasPendingToken(false)
-                        .build();
+            if (verification.verifiedAt() != null) {
+                return alreadyVerified(verification.email());
             }
 
-            // Mark as verified
-            verification.setVerifiedAt(LocalDateTime.now());
-            emailVerificationRepository.save(verification);
+            // Mark as verified; losing the race to a concurrent click on the same link is not an error
+            if (emailVerificationRepository.markVerified(verification.verificationId(), now) == 0) {
+                return alreadyVerified(verification.email());
+            }
+            emailVerificationRepository.markUserVerified(verification.userId(), now);
+
+            // Send welcome email
+            emailService.sendWelcomeEmail(verification.email());
+            auditService.record(ActionType.EMAIL_VERIFICATION, verification.email(), null);
+
+            log.info("Email verified successfully for user: {}", verification.email());
+
+            return EmailVerificationResponse.builder()
+                    .success(true)
+                    .message("Email verified successfully!")
+                    .email(verification.email())
+                    .verified(true)
+                    .hasPendingToken(false)
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Email verification failed for token: {}", token, e);
+            return EmailVerificationResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .verified(false)
+                    .hasPendingToken(false)
+                    .build();
+        }
+    }
+
+    private static EmailVerificationResponse alreadyVerified(String email) {
+        return EmailVerificationResponse.builder()
+                .success(true)
+                .message("Email is already verified")
+                .email(email)
+                .verified(true)
+                .hasPendingToken(false)
+                .build();
+    }
+
+    // One signature check, one read and one user update; nothing in email_verifications is touched
+    private EmailVerificationResponse verifySignedToken(String token) {
+        try {
+            SignedVerificationToken.Payload payload = SignedVerificationToken.verify(tokenKey, token);
+            if (payload == null) {
+                throw new RuntimeException("Invalid verification token");
+            }
+            if (payload.expiresAt() < toEpochSecond(LocalDateTime.now())) {
+                throw new RuntimeException("Verification token has expired");
+            }
+
+            User user = userRepository.findById(payload.userId())
+                    .orElseThrow(() -> new RuntimeException("Invalid verification token"));
+            if (toEpochSecond(user.getEmailLastChanged()) != payload.emailChangedAt()) {
+                throw new RuntimeException("Verification token is no longer valid for this email address");
+            }
+
+            if (Boolean.TRUE.equals(user.getEmailVerified())) {
+                return alreadyVerified(user.getEmail());
+            }
 
-            // Update user's email verification status
-            User user = verification.getUser();
             user.setEmailVerified(true);
             userRepository.save(user);
-
-            // Send welcome email
             emailService.sendWelcomeEmail(user.getEmail());
+            auditService.record(ActionType.EMAIL_VERIFICATION, user.getEmail(), "Signed token");
 
             log.info("Email verified successfully for user: {}", user.getEmail());
 
@@ -109,7 +204,7 @@ public class EmailVerificationService {
                     .build();
 
         } catch (Exception e) {
-            log.error("Email verification failed for token: {}", token, e);
+            log.error("Email verification failed for signed token: {}", e.getMessage());
             return EmailVerificationResponse.builder()
                     .success(false)
                     .message(e.getMessage())
@@ -119,6 +214,11 @@ public class EmailVerificationService {
         }
     }
 
+    // Users created before emailLastChanged was tracked bind to 0
+    private static long toEpochSecond(LocalDateTime time) {
+        return time == null ? 0 : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
     public EmailVerificationResponse resendVerificationEmail(String email) {
         try {
             User user = userRepository.findByEmail(email)
@@ -162,20 +262,18 @@ public class EmailVerificationService {
 
     public EmailVerificationResponse checkVerificationStatus(String email) {
         try {
-            User user = userRepository.findByEmail(email)
+            VerificationStatusView status = emailVerificationRepository.findStatusByEmail(email, LocalDateTime.now())
                     .orElseThrow(() -> new RuntimeException("User not found"));
+            boolean verified = status.emailVerified();
 
-            Optional<EmailVerification> pendingVerification =
-                    emailVerificationRepository.findByUserAndVerifiedAtIsNull(user);
-
-            boolean hasPendingToken = pendingVerification.isPresent() &&
-                    pendingVerification.get().getTokenExpiry().isAfter(LocalDateTime.now());
+            // Signed tokens are not tracked; in stateless mode any unverified user may hold a valid link
+            boolean hasPendingToken = stateless ? !verified : status.pendingTokens() > 0;
 
             return EmailVerificationResponse.builder()
                     .success(true)
                     .message("Status retrieved successfully")
                     .email(email)
-                    .verified(user.getEmailVerified())
+                    .verified(verified)
                     .hasPendingToken(hasPendingToken)
                     .build();
 
@@ -195,6 +293,9 @@ public class EmailVerificationService {
     @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
     @Transactional
     public void cleanupExpiredTokens() {
+        if (stateless) {
+            return; // Nothing is written to the table in stateless mode
+        }
         try {
             emailVerificationRepository.deleteExpiredTokens(LocalDateTime.now());
             log.info("Expired verification tokens cleaned up");
@@ -1,66 +1,385 @@
 package com.midlane.project_management_tool_auth_service.service;
 
+import com.midlane.project_management_tool_auth_service.util.JfrEvents;
+import com.midlane.project_management_tool_auth_service.util.MappedRecordLog;
+import com.midlane.project_management_tool_auth_service.util.RequestTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Kafka producer that never loses fire-and-forget messages to a broker outage, and never blocks the caller on an
+ * acknowledgement.
+ * <p>
+ * While the broker is healthy messages are sent directly. When a send fails, the message is appended to a local
+ * memory-mapped spool and its topic switches to spooling: new messages for the topic go to the spool behind the
+ * failed one until the replayer has drained it back to Kafka. Sends that were already in flight are spooled again
+ * when they complete, even if they were delivered, and messages arriving meanwhile wait in memory until they have
+ * completed; replay then leaves every key with its latest message last, at the cost of duplicates.
+ */
 @Service
 public class KafkaProducerService {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaProducerService.class);
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MappedRecordLog spool;
+    private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+    private final AtomicLong sampledSends = new AtomicLong();
+    private final Map<String, TopicState> topicStates = new ConcurrentHashMap<>();
 
-    public KafkaProducerService(KafkaTemplate<String, String> kafkaTemplate) {
+    // A spool left from a previous run may hold messages for any topic, so every topic spools until it drains
+    private volatile boolean startupBacklog;
+
+    private final Counter spooledCounter;
+    private final Counter replayedCounter;
+    private final Counter droppedCounter;
+
+    @Value("${app.kafka.spool.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    @Value("${app.kafka.spool.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.kafka.producer.debug-log-sample-rate:100}") // Log 1 in N successful sends at DEBUG; 0 turns it off
+    private int debugLogSampleRate;
+
+    public KafkaProducerService(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.kafka.spool.path:./data/kafka-spool.log}") String spoolPath,
+                                @Value("${app.kafka.spool.capacity-bytes:134217728}") long spoolCapacity) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        MappedRecordLog opened = null;
+        try {
+            opened = new MappedRecordLog(Path.of(spoolPath), spoolCapacity);
+            if (opened.pendingRecords() > 0) {
+                logger.info("Kafka spool holds {} messages from a previous run; replaying", opened.pendingRecords());
+                startupBacklog = true;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not open Kafka spool at {}, failed sends will be dropped: {}", spoolPath, e.getMessage());
+        }
+        this.spool = opened;
+
+        this.spooledCounter = meterRegistry.counter("kafka.spool.spooled");
+        this.replayedCounter = meterRegistry.counter("kafka.spool.replayed");
+        this.droppedCounter = meterRegistry.counter("kafka.spool.dropped");
+        if (spool != null) {
+            Gauge.builder("kafka.spool.pending", spool, MappedRecordLog::pendingRecords).register(meterRegistry);
+            Gauge.builder("kafka.spool.pending.bytes", spool, MappedRecordLog::pendingBytes)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
     }
 
     public void sendMessage(String topic, String message) {
+        sendOrSpool(topic, null, message);
+    }
+
+    public void sendMessageWithKey(String topic, String key, String message) {
+        sendOrSpool(topic, key, message);
+    }
+
+    /**
+     * Raw send that hands the result back to the caller, e.g. so the outbox relay can confirm delivery.
+     * Every send goes through here, so per-topic latency, outcome and size are recorded in one place.
+     */
+    public CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+        TopicMeters meters = topicMeters.computeIfAbsent(record.topic(), this::createTopicMeters);
+        int size = record.value() == null ? 0 : record.value().length;
+        meters.recordSize.record(size);
+        JfrEvents.KafkaSend event = new JfrEvents.KafkaSend();
+        event.begin();
+        long startNanos = System.nanoTime();
+        CompletableFuture<SendResult<String, byte[]>> future;
         try {
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(topic, message);
+            future = kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            meters.errors.increment();
+            commit(event, record.topic(), size, null);
+            throw e;
+        } finally {
+            // Only the caller's share (serialization, metadata wait, buffering); acks complete asynchronously
+            RequestTimings.add(RequestTimings.Phase.KAFKA, System.nanoTime() - startNanos);
+        }
+        return future.whenComplete((result, ex) -> {
+            commit(event, record.topic(), size, ex == null ? result : null);
+            long elapsed = System.nanoTime() - startNanos;
+            if (ex == null) {
+                meters.success.record(elapsed, TimeUnit.NANOSECONDS);
+                if (debugLogSampleRate > 0 && logger.isDebugEnabled()
+                        && sampledSends.getAndIncrement() % debugLogSampleRate == 0) {
+                    logger.debug("Sent to topic [{}] partition [{}] offset [{}] in {} us (1 in {} sends logged)",
+                            record.topic(), result.getRecordMetadata().partition(), result.getRecordMetadata().offset(),
+                            TimeUnit.NANOSECONDS.toMicros(elapsed), debugLogSampleRate);
+                }
+            } else {
+                meters.failure.record(elapsed, TimeUnit.NANOSECONDS);
+                meters.errors.increment();
+            }
+        });
+    }
 
-            future.whenComplete((result, ex) -> {
-                if (ex == null) {
-                    logger.info("Message sent successfully to topic [{}] with offset=[{}]: {}",
-                            topic, result.getRecordMetadata().offset(), message);
+    private static void commit(JfrEvents.KafkaSend event, String topic, int size, SendResult<String, byte[]> result) {
+        if (event.shouldCommit()) {
+            event.topic = topic;
+            event.payloadBytes = size;
+            event.success = result != null;
+            if (result != null) {
+                event.partition = result.getRecordMetadata().partition();
+                event.offset = result.getRecordMetadata().offset();
+            }
+            event.commit();
+        }
+    }
+
+    private TopicMeters createTopicMeters(String topic) {
+        return new TopicMeters(
+                sendTimer(topic, "success"),
+                sendTimer(topic, "error"),
+                Counter.builder("kafka.producer.send.errors").tag("topic", topic).register(meterRegistry),
+                DistributionSummary.builder("kafka.producer.record.size")
+                        .tag("topic", topic)
+                        .baseUnit("bytes")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+
+    private Timer sendTimer(String topic, String outcome) {
+        return Timer.builder("kafka.producer.send")
+                .description("Time from send until the broker acknowledged or rejected the record")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record TopicMeters(Timer success, Timer failure, Counter errors, DistributionSummary recordSize) {
+    }
+
+    // Guarded by itself; when both are needed, the topic state is locked before the spool
+    private static final class TopicState {
+        boolean spooling;
+        int inFlight;
+        final List<DeferredMessage> deferred = new ArrayList<>();
+
+        TopicState(boolean spooling) {
+            this.spooling = spooling;
+        }
+    }
+
+    private record DeferredMessage(String key, String message) {
+    }
+
+    private void sendOrSpool(String topic, String key, String message) {
+        TopicState state = topicStates.computeIfAbsent(topic, t -> new TopicState(startupBacklog));
+        synchronized (state) {
+            if (state.spooling) {
+                if (state.inFlight > 0) {
+                    state.deferred.add(new DeferredMessage(key, message));
                 } else {
-                    logger.error("Failed to send message to topic [{}]: {}", topic, message, ex);
+                    spoolMessage(topic, key, message);
                 }
-            });
+                return;
+            }
+            state.inFlight++;
+        }
+        try {
+            send(new ProducerRecord<>(topic, key, utf8(message)))
+                    .whenComplete((result, ex) -> complete(state, topic, key, message, ex));
         } catch (Exception e) {
-            logger.error("Error sending message to Kafka topic [{}]: {}", topic, message, e);
+            complete(state, topic, key, message, e);
         }
     }
 
-    public void sendMessageWithKey(String topic, String key, String message) {
-        try {
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(topic, key, message);
+    // Callbacks for one partition run in send order, so a failure is seen before later sends to its keys complete
+    private void complete(TopicState state, String topic, String key, String message, Throwable failure) {
+        synchronized (state) {
+            state.inFlight--;
+            if (failure != null) {
+                if (!state.spooling && spool != null) {
+                    logger.warn("Kafka send to topic [{}] failed, spooling its messages until the broker recovers: {}",
+                            topic, failure.getMessage());
+                    state.spooling = true;
+                }
+                spoolMessage(topic, key, message);
+            } else if (state.spooling) {
+                // Delivered ahead of an earlier message that failed: spool it again so replay restores the order
+                spoolMessage(topic, key, message);
+            }
+            if (state.inFlight == 0 && !state.deferred.isEmpty()) {
+                for (DeferredMessage deferred : state.deferred) {
+                    spoolMessage(topic, deferred.key(), deferred.message());
+                }
+                state.deferred.clear();
+            }
+        }
+    }
 
-            future.whenComplete((result, ex) -> {
-                if (ex == null) {
-                    logger.info("Message sent successfully to topic [{}] with key [{}] and offset=[{}]: {}",
-                            topic, key, result.getRecordMetadata().offset(), message);
-                } else {
-                    logger.error("Failed to send message to topic [{}] with key [{}]: {}", topic, key, message, ex);
+    private void spoolMessage(String topic, String key, String message) {
+        if (spool == null) {
+            droppedCounter.increment();
+            logger.error("No Kafka spool available, dropping message for topic [{}]", topic);
+            return;
+        }
+        byte[] record = encode(topic, key, message);
+        synchronized (spool) {
+            if (!spool.append(record)) {
+                compactSpool();
+                if (!spool.append(record)) {
+                    droppedCounter.increment();
+                    logger.error("Kafka spool is full ({} bytes), dropping message for topic [{}]",
+                            spool.capacity(), topic);
+                    return;
                 }
-            });
-        } catch (Exception e) {
-            logger.error("Error sending message with key to Kafka topic [{}]: {}", topic, message, e);
+            }
         }
+        spooledCounter.increment();
     }
 
-    // Synchronous send for critical messages where you need to ensure delivery
-    public void sendMessageSync(String topic, String message) {
+    /**
+     * Replay spooled messages in order. Only the acknowledged prefix of each batch is consumed, so a broker that
+     * fails mid-batch causes the remainder to be retried on the next run. Once the spool is empty, direct sends resume.
+     */
+    @Scheduled(fixedDelayString = "${app.kafka.spool.replay-interval-ms:1000}")
+    public void replaySpool() {
+        if (spool == null) {
+            return;
+        }
+        if (spool.pendingRecords() == 0) {
+            resumeDirectSends();
+            return;
+        }
+
+        List<byte[]> batch = spool.peek(replayBatchSize);
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
         try {
-            SendResult<String, String> result = kafkaTemplate.send(topic, message).get();
-            logger.info("Message sent synchronously to topic [{}] with offset=[{}]: {}",
-                    topic, result.getRecordMetadata().offset(), message);
+            for (byte[] record : batch) {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                String topic = readString(buffer);
+                String key = readString(buffer);
+                String message = readString(buffer);
+                futures.add(send(new ProducerRecord<>(topic, key, utf8(message))));
+            }
         } catch (Exception e) {
-            logger.error("Error sending message synchronously to Kafka topic [{}]: {}", topic, message, e);
-            throw new RuntimeException("Failed to send message to Kafka", e);
+            logger.debug("Kafka still unavailable while replaying spool: {}", e.getMessage());
+        }
+
+        int acknowledged = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (CompletableFuture<SendResult<String, byte[]>> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acknowledged++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                break;
+            }
+        }
+
+        synchronized (spool) {
+            spool.consume(acknowledged);
+            replayedCounter.increment(acknowledged);
+        }
+        if (acknowledged == batch.size()) {
+            resumeDirectSends();
+        }
+    }
+
+    // A topic may only send directly again once nothing of it is left behind: not in the spool, in flight or deferred
+    private void resumeDirectSends() {
+        synchronized (spool) {
+            if (spool.pendingRecords() > 0) {
+                return;
+            }
+            startupBacklog = false;
+        }
+        topicStates.forEach((topic, state) -> {
+            synchronized (state) {
+                synchronized (spool) {
+                    if (state.spooling && state.inFlight == 0 && state.deferred.isEmpty()
+                            && spool.pendingRecords() == 0) {
+                        state.spooling = false;
+                        logger.info("Kafka spool drained, resuming direct sends to topic [{}]", topic);
+                    }
+                }
+            }
+        });
+    }
+
+    private void compactSpool() {
+        try {
+            spool.compact();
+        } catch (IOException e) {
+            logger.error("Failed to compact Kafka spool", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (spool != null) {
+            try {
+                spool.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close Kafka spool: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Record layout: [topic][key][message], each as [int length][utf-8 bytes] with -1 for a null key
+    private static byte[] encode(String topic, String key, String message) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key == null ? null : key.getBytes(StandardCharsets.UTF_8);
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(12 + topicBytes.length
+                + (keyBytes == null ? 0 : keyBytes.length) + messageBytes.length);
+        buffer.putInt(topicBytes.length).put(topicBytes);
+        if (keyBytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(keyBytes.length).put(keyBytes);
+        }
+        buffer.putInt(messageBytes.length).put(messageBytes);
+        return buffer.array();
+    }
+
+    private static byte[] utf8(String message) {
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
         }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,247 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.model.OutboxEvent;
+import com.midlane.project_management_tool_auth_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the transactional outbox to Kafka.
+ * <p>
+ * Rows are read in id order and sent as one producer batch. Once the broker acknowledges a row it is deleted,
+ * so the relay always resumes from the oldest unpublished row. If a send fails, later rows for the same key
+ * are kept as well and retried on the next run, which preserves per-key order (delivery is at-least-once).
+ * A Postgres advisory lock makes sure only one instance relays at a time.
+ * <p>
+ * Bursts of superseding events for one key (e.g. several USER_UPDATED within milliseconds) are coalesced into
+ * the latest one before sending; see {@link #coalesce(List)}.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    private static final long RELAY_LOCK_ID = 0x6F7574626F78L; // "outbox"
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String SCHEMA_VERSION_HEADER = "schema-version";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaProducerService kafkaProducerService;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter coalescedCounter;
+    private final DistributionSummary coalesceRatio;
+    private final Timer batchTimer;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${app.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Duration coalesceWindow;
+    private final Duration coalesceMaxDelay;
+    private final Set<String> coalesceEventTypes;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaProducerService kafkaProducerService,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.coalesce.window-ms:300}") long coalesceWindowMs,
+                       @Value("${app.outbox.coalesce.max-delay-ms:2000}") long coalesceMaxDelayMs,
+                       @Value("${app.outbox.coalesce.event-types:USER_UPDATED,USER_SNAPSHOT}") Set<String> coalesceEventTypes) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducerService = kafkaProducerService;
+        this.publishedCounter = meterRegistry.counter("outbox.relay.published");
+        this.failedCounter = meterRegistry.counter("outbox.relay.failed");
+        this.coalesceWindow = Duration.ofMillis(coalesceWindowMs);
+        this.coalesceMaxDelay = Duration.ofMillis(coalesceMaxDelayMs);
+        this.coalesceEventTypes = coalesceEventTypes;
+        this.coalescedCounter = meterRegistry.counter("outbox.relay.coalesced");
+        this.coalesceRatio = DistributionSummary.builder("outbox.relay.coalesce.ratio")
+                .description("Outbox events per Kafka message sent, per relay batch")
+                .register(meterRegistry);
+        this.batchTimer = meterRegistry.timer("outbox.relay.batch");
+        Gauge.builder("outbox.pending", pendingEvents, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("outbox.lag", lagMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Age of the oldest unpublished outbox event")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:500}")
+    @Transactional
+    public void relay() {
+        if (!outboxEventRepository.tryAdvisoryLock(RELAY_LOCK_ID)) {
+            return; // Another instance is relaying
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findOldest(PageRequest.of(0, batchSize));
+        if (!batch.isEmpty()) {
+            batchTimer.record(() -> publish(batch));
+        }
+        updateLag();
+    }
+
+    private void publish(List<OutboxEvent> batch) {
+        List<PendingSend> sends = coalesce(batch);
+        if (sends.isEmpty()) {
+            return; // Everything is still inside its coalescing window
+        }
+
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(sends.size());
+        for (PendingSend send : sends) {
+            futures.add(kafkaProducerService.send(toRecord(send.event())));
+        }
+
+        List<Long> publishedIds = new ArrayList<>(batch.size());
+        Set<String> blockedKeys = new HashSet<>();
+        int published = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < sends.size(); i++) {
+            PendingSend send = sends.get(i);
+            String orderingKey = orderingKey(send.event());
+            if (!blockedKeys.contains(orderingKey) && awaitSend(futures.get(i), deadline)) {
+                publishedIds.addAll(send.coveredIds());
+                published++;
+            } else {
+                blockedKeys.add(orderingKey);
+            }
+        }
+
+        if (!publishedIds.isEmpty()) {
+            outboxEventRepository.deleteByIdIn(publishedIds);
+        }
+        publishedCounter.increment(published);
+        if (published > 0) {
+            coalescedCounter.increment(publishedIds.size() - published);
+            coalesceRatio.record((double) publishedIds.size() / published);
+        }
+        int failed = sends.size() - published;
+        if (failed > 0) {
+            failedCounter.increment(failed);
+            log.warn("Outbox relay published {} events, {} left for retry", published, failed);
+        }
+    }
+
+    /**
+     * Collapse consecutive coalescable events for the same topic and key into the latest one, which carries the
+     * latest state. A key whose newest coalescable event is still inside the window is held back for a later run,
+     * unless its oldest event has already waited the maximum delay. Other event types are never dropped and act as
+     * barriers, so per-key order is unchanged.
+     */
+    private List<PendingSend> coalesce(List<OutboxEvent> batch) {
+        Map<String, List<OutboxEvent>> byKey = new LinkedHashMap<>();
+        Map<Long, OutboxEvent> nextById = new HashMap<>();
+        for (OutboxEvent event : batch) {
+            List<OutboxEvent> group = byKey.computeIfAbsent(orderingKey(event), key -> new ArrayList<>());
+            if (!group.isEmpty()) {
+                nextById.put(group.get(group.size() - 1).getId(), event);
+            }
+            group.add(event);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = now.minus(coalesceWindow);
+        LocalDateTime maxDelayStart = now.minus(coalesceMaxDelay);
+        Set<String> heldKeys = new HashSet<>();
+        for (Map.Entry<String, List<OutboxEvent>> group : byKey.entrySet()) {
+            List<OutboxEvent> events = group.getValue();
+            OutboxEvent newest = events.get(events.size() - 1);
+            if (isCoalescable(newest)
+                    && newest.getCreatedAt().isAfter(windowStart)
+                    && events.get(0).getCreatedAt().isAfter(maxDelayStart)) {
+                heldKeys.add(group.getKey());
+            }
+        }
+
+        List<PendingSend> sends = new ArrayList<>(batch.size());
+        Map<String, List<Long>> supersededIds = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            String key = orderingKey(event);
+            if (heldKeys.contains(key)) {
+                continue;
+            }
+            List<Long> covered = supersededIds.computeIfAbsent(key, k -> new ArrayList<>());
+            covered.add(event.getId());
+            OutboxEvent next = nextById.get(event.getId());
+            if (isCoalescable(event) && next != null && event.getEventType().equals(next.getEventType())) {
+                continue; // Deleted once the event that replaces it is acknowledged
+            }
+            sends.add(new PendingSend(event, covered));
+            supersededIds.remove(key);
+        }
+        return sends;
+    }
+
+    private boolean isCoalescable(OutboxEvent event) {
+        return !coalesceWindow.isZero() && event.getEventType() != null
+                && coalesceEventTypes.contains(event.getEventType());
+    }
+
+    private static String orderingKey(OutboxEvent event) {
+        return event.getTopic() + "/" + event.getMessageKey();
+    }
+
+    static ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record =
+                new ProducerRecord<>(event.getTopic(), event.getMessageKey(), event.getPayload());
+        record.headers().add(CONTENT_TYPE_HEADER, event.getContentType().getBytes(StandardCharsets.UTF_8));
+        if (event.getSchemaVersion() != null) {
+            record.headers().add(SCHEMA_VERSION_HEADER,
+                    String.valueOf(event.getSchemaVersion()).getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    private boolean awaitSend(CompletableFuture<SendResult<String, byte[]>> future, long deadline) {
+        try {
+            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.debug("Outbox send failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // One Kafka send and the outbox rows it covers (the event itself plus the ones it superseded)
+    private record PendingSend(OutboxEvent event, List<Long> coveredIds) {
+    }
+
+    private void updateLag() {
+        pendingEvents.set(outboxEventRepository.count());
+        lagMillis.set(outboxEventRepository.findOldestCreatedAt()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+}
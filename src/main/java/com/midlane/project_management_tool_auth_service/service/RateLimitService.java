@@ -0,0 +1,174 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.exception.RateLimitExceededException;
+import com.midlane.project_management_tool_auth_service.model.ActionType;
+import com.midlane.project_management_tool_auth_service.security.RateLimitBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the endpoints that cost bcrypt time or an email: login, registration and verification resends.
+ * <p>
+ * Each endpoint has token buckets keyed by client IP and, where the request names one, by email. Failed logins
+ * are also counted per email over a sliding window; reaching the limit locks the account for a while, and locked
+ * accounts are rejected before any bucket or password check. Checks run before the expensive work, so a
+ * credential-stuffing wave is turned away without hashing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitService {
+
+    private final RateLimitBackend backend;
+    private final MeterRegistry meterRegistry;
+    private final AuditService auditService;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.login.ip.capacity:20}")
+    private int loginIpCapacity;
+
+    @Value("${app.rate-limit.login.ip.refill-per-minute:10}")
+    private double loginIpRefillPerMinute;
+
+    @Value("${app.rate-limit.login.email.capacity:5}")
+    private int loginEmailCapacity;
+
+    @Value("${app.rate-limit.login.email.refill-per-minute:2}")
+    private double loginEmailRefillPerMinute;
+
+    @Value("${app.rate-limit.register.ip.capacity:5}")
+    private int registerIpCapacity;
+
+    @Value("${app.rate-limit.register.ip.refill-per-minute:0.2}")
+    private double registerIpRefillPerMinute;
+
+    @Value("${app.rate-limit.resend-verification.ip.capacity:10}")
+    private int resendIpCapacity;
+
+    @Value("${app.rate-limit.resend-verification.ip.refill-per-minute:0.5}")
+    private double resendIpRefillPerMinute;
+
+    @Value("${app.rate-limit.resend-verification.email.capacity:3}")
+    private int resendEmailCapacity;
+
+    @Value("${app.rate-limit.resend-verification.email.refill-per-minute:0.05}") // 3 per hour
+    private double resendEmailRefillPerMinute;
+
+    @Value("${app.rate-limit.lockout.max-failures:5}")
+    private int lockoutMaxFailures;
+
+    @Value("${app.rate-limit.lockout.window-ms:900000}") // 15 minutes
+    private long lockoutWindowMs;
+
+    @Value("${app.rate-limit.lockout.duration-ms:900000}") // 15 minutes
+    private long lockoutDurationMs;
+
+    public void checkLogin(String ip, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = backend.now();
+        String account = normalize(email);
+        long lockedUntil = backend.lockedUntil("lock:" + account, now);
+        if (lockedUntil > 0) {
+            reject("login", "account");
+            throw new RateLimitExceededException(RateLimitExceededException.ACCOUNT_LOCKED,
+                    "Account is temporarily locked after repeated failed logins", seconds(lockedUntil - now));
+        }
+        consume("login", "ip", ip, loginIpCapacity, loginIpRefillPerMinute, now);
+        consume("login", "email", account, loginEmailCapacity, loginEmailRefillPerMinute, now);
+    }
+
+    public void loginFailed(String ip, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = backend.now();
+        String account = normalize(email);
+        int failures = backend.recordFailure("fail:" + account, lockoutWindowMs, now);
+        if (failures == RateLimitBackend.UNTRACKED) {
+            // Failing closed: an account whose failures cannot be counted is locked rather than left unlimited
+            meterRegistry.counter("rate.limit.failures.untracked").increment();
+            backend.lock("lock:" + account, now + lockoutDurationMs);
+            log.warn("Failure table full, account {} locked for {} ms", account, lockoutDurationMs);
+            auditService.record(ActionType.ACCOUNT_LOCKED, account,
+                    "Failed login from " + ip + " could not be counted; locked for " + lockoutDurationMs + " ms");
+        } else if (failures >= lockoutMaxFailures) {
+            backend.lock("lock:" + account, now + lockoutDurationMs);
+            backend.resetFailures("fail:" + account);
+            meterRegistry.counter("rate.limit.lockouts").increment();
+            log.warn("Account {} locked for {} ms after {} failed logins", account, lockoutDurationMs, failures);
+            auditService.record(ActionType.ACCOUNT_LOCKED, account,
+                    failures + " failed logins, last from " + ip + "; locked for " + lockoutDurationMs + " ms");
+        }
+    }
+
+    public void loginSucceeded(String email) {
+        if (enabled) {
+            backend.resetFailures("fail:" + normalize(email));
+        }
+    }
+
+    public void checkRegistration(String ip) {
+        if (enabled) {
+            consume("register", "ip", ip, registerIpCapacity, registerIpRefillPerMinute, backend.now());
+        }
+    }
+
+    public void checkResendVerification(String ip, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = backend.now();
+        consume("resend-verification", "ip", ip, resendIpCapacity, resendIpRefillPerMinute, now);
+        consume("resend-verification", "email", normalize(email), resendEmailCapacity, resendEmailRefillPerMinute, now);
+    }
+
+    /**
+     * Lift a lockout early, e.g. after an administrator confirmed the account owner. Returns false if none was active.
+     */
+    public boolean unlockAccount(String email) {
+        String account = normalize(email);
+        backend.resetFailures("fail:" + account);
+        boolean unlocked = backend.unlock("lock:" + account);
+        if (unlocked) {
+            auditService.record(ActionType.ACCOUNT_UNLOCKED, account, "Lockout lifted by administrator");
+        }
+        return unlocked;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        backend.evictIdle(backend.now());
+    }
+
+    private void consume(String endpoint, String scope, String value, int capacity, double refillPerMinute, long now) {
+        long waitMillis = backend.tryConsume(endpoint + ":" + scope + ":" + value, capacity, refillPerMinute / 60.0, now);
+        if (waitMillis > 0) {
+            reject(endpoint, scope);
+            throw new RateLimitExceededException(RateLimitExceededException.RATE_LIMITED,
+                    "Too many requests, please try again later", seconds(waitMillis));
+        }
+    }
+
+    private void reject(String endpoint, String scope) {
+        meterRegistry.counter("rate.limit.rejected", "endpoint", endpoint, "scope", scope).increment();
+    }
+
+    private static long seconds(long millis) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(Math.min(millis, TimeUnit.DAYS.toMillis(1)) + 999));
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,7 +1,9 @@
 package com.midlane.project_management_tool_auth_service.service;
 
+import com.midlane.project_management_tool_auth_service.model.ActionType;
 import com.midlane.project_management_tool_auth_service.model.RefreshToken;
 import com.midlane.project_management_tool_auth_service.repository.RefreshTokenRepository;
+import com.midlane.project_management_tool_auth_service.util.JfrEvents;
 import com.midlane.project_management_tool_auth_service.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,6 +26,7 @@ public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final JwtUtil jwtUtil;
+    private final AuditService auditService;
 
     @Value("${jwt.refresh-token.expiration:604800000}") // 7 days in milliseconds
     private long refreshTokenExpiration;
@@ -32,8 +36,12 @@ public class RefreshTokenService {
 
     @Transactional
     public RefreshToken createRefreshToken(UserDetails userDetails, String deviceInfo) {
+        JfrEvents.RefreshTokenCreate event = new JfrEvents.RefreshTokenCreate();
+        event.begin();
+
         // Clean up old tokens if user has too many
-        cleanupOldUserTokens(userDetails.getUsername());
+        List<RefreshToken> activeTokens = refreshTokenRepository.findByUserEmailAndRevokedFalse(userDetails.getUsername());
+        int revoked = cleanupOldUserTokens(activeTokens);
 
         String tokenValue = UUID.randomUUID().toString();
         LocalDateTime expiryDate = LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000);
@@ -46,7 +54,16 @@ public class RefreshTokenService {
                 .revoked(false)
                 .build();
 
-        return refreshTokenRepository.save(refreshToken);
+        auditService.record(ActionType.SESSION_CREATED, userDetails.getUsername(), deviceInfo);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+
+        if (event.shouldCommit()) {
+            event.subjectHash = JfrEvents.subjectHash(userDetails.getUsername());
+            event.activeTokens = activeTokens.size();
+            event.revokedRows = revoked;
+            event.commit();
+        }
+        return saved;
     }
 
     public Optional<RefreshToken> findByToken(String token) {
@@ -56,6 +73,9 @@ public class RefreshTokenService {
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.isExpired() || token.isRevoked()) {
             refreshTokenRepository.delete(token);
+            if (token.isExpired()) {
+                auditService.record(ActionType.SESSION_EXPIRED, token.getUserEmail(), token.getDeviceInfo());
+            }
             throw new RuntimeException("Refresh token is expired or revoked. Please login again.");
         }
         return token;
@@ -64,6 +84,7 @@ public class RefreshTokenService {
     @Transactional
     public void revokeToken(String token) {
         refreshTokenRepository.revokeToken(token);
+        auditService.record(ActionType.USER_LOGOUT, null, "Refresh token revoked");
     }
 
     @Transactional
@@ -71,8 +92,9 @@ public class RefreshTokenService {
         refreshTokenRepository.revokeAllUserTokens(userEmail);
     }
 
-    private void cleanupOldUserTokens(String userEmail) {
-        List<RefreshToken> userTokens = refreshTokenRepository.findByUserEmailAndRevokedFalse(userEmail);
+    // Returns the number of tokens revoked
+    private int cleanupOldUserTokens(List<RefreshToken> activeTokens) {
+        List<RefreshToken> userTokens = new ArrayList<>(activeTokens);
 
         if (userTokens.size() >= maxRefreshTokensPerUser) {
             // Sort by creation date and remove oldest tokens
@@ -84,7 +106,9 @@ public class RefreshTokenService {
                 oldToken.setRevoked(true);
                 refreshTokenRepository.save(oldToken);
             }
+            return tokensToRemove;
         }
+        return 0;
     }
 
     @Scheduled(fixedRate = 3600000) // Run every hour
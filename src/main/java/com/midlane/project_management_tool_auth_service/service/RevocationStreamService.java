@@ -0,0 +1,201 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.dto.AuthEventDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes revocation events (token epochs and revoked token ids) to long-lived SSE subscribers such as gateways.
+ * <p>
+ * Event ids are {@code <stream-id>:<sequence>}, where the stream id changes on every restart. Recent events are kept in a ring buffer so a reconnecting
+ * subscriber resumes from its Last-Event-ID; when that id is unknown or too old the subscriber receives a
+ * {@code resync} event and should rebuild its local state before relying on the stream again.
+ * Each subscriber has a bounded queue drained by its own virtual thread; a subscriber whose queue overflows
+ * is disconnected and can resume from its last received id.
+ */
+@Service
+@Slf4j
+public class RevocationStreamService {
+
+    public static final String REVOCATION_EVENT = "revocation";
+    public static final String RESYNC_EVENT = "resync";
+
+    private final String streamId;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final long emitterTimeout;
+
+    private final AuthEventDto[] history;
+    private long lastSequence;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public RevocationStreamService(
+            @Value("${app.instance-id:local}") String instanceId,
+            @Value("${app.revocation.stream.history-size:10000}") int historySize,
+            @Value("${app.revocation.stream.subscriber-queue-capacity:1024}") int queueCapacity,
+            @Value("${app.revocation.stream.max-subscribers:500}") int maxSubscribers,
+            @Value("${app.revocation.stream.timeout-ms:1800000}") long emitterTimeout) { // 30 minutes
+        this.streamId = instanceId + "." + Long.toString(System.currentTimeMillis(), 36);
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeout = emitterTimeout;
+        this.history = new AuthEventDto[historySize];
+    }
+
+    /**
+     * Register a subscriber, replaying buffered events after {@code lastEventId} when possible.
+     * Returns null when the subscriber limit has been reached.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(queueCapacity));
+
+        // Limit check, replay and registration happen under the publish lock so no event falls in between
+        // and concurrent subscribers cannot overshoot the limit
+        synchronized (this) {
+            if (subscribers.size() >= maxSubscribers) {
+                return null;
+            }
+            Long resumeFrom = parseSequence(lastEventId);
+            if (lastEventId != null && (resumeFrom == null || !canResumeFrom(resumeFrom))) {
+                subscriber.queue.offer(SseEmitter.event()
+                        .id(eventId(lastSequence))
+                        .name(RESYNC_EVENT)
+                        .data("{}", MediaType.APPLICATION_JSON)
+                        .build());
+            } else if (resumeFrom != null) {
+                for (long sequence = resumeFrom + 1; sequence <= lastSequence; sequence++) {
+                    subscriber.queue.offer(toSseEvent(sequence, history[slot(sequence)]));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        emitter.onCompletion(() -> disconnect(subscriber));
+        emitter.onTimeout(() -> disconnect(subscriber));
+        emitter.onError(e -> disconnect(subscriber));
+        subscriber.drainer = Thread.ofVirtual().name("revocation-stream-", 0).start(() -> drain(subscriber));
+        log.debug("Revocation stream subscriber connected, {} active", subscribers.size());
+        return emitter;
+    }
+
+    public void publish(AuthEventDto event) {
+        synchronized (this) {
+            long sequence = ++lastSequence;
+            history[slot(sequence)] = event;
+            Set<ResponseBodyEmitter.DataWithMediaType> sseEvent = toSseEvent(sequence, event);
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(sseEvent)) {
+                    log.warn("Dropping slow revocation stream subscriber after {} queued events", queueCapacity);
+                    disconnect(subscriber);
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // Comment frames keep idle connections open through proxies and surface dead clients
+    @Scheduled(fixedRate = 15000) // Run every 15 seconds
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.queue.offer(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(this::disconnect);
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (!subscriber.closed) {
+                subscriber.emitter.send(subscriber.queue.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Revocation stream subscriber went away: {}", e.getMessage());
+        } finally {
+            disconnect(subscriber);
+            try {
+                subscriber.emitter.complete();
+            } catch (Exception e) {
+                // Already completed or the connection is gone
+            }
+        }
+    }
+
+    // Never touches the emitter, so publishers are not blocked by a subscriber stuck in a socket write
+    private void disconnect(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.closed = true;
+        if (subscriber.drainer != null) {
+            subscriber.drainer.interrupt();
+        }
+    }
+
+    // Resumable when every event after the given sequence is still buffered and fits the subscriber queue
+    private boolean canResumeFrom(long sequence) {
+        long missed = lastSequence - sequence;
+        return missed >= 0 && missed <= history.length && missed <= queueCapacity;
+    }
+
+    private Long parseSequence(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(streamId + ":")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(streamId.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Built once and shared by all subscribers; event builders are not safe to reuse
+    private Set<ResponseBodyEmitter.DataWithMediaType> toSseEvent(long sequence, AuthEventDto event) {
+        return SseEmitter.event()
+                .id(eventId(sequence))
+                .name(REVOCATION_EVENT)
+                .data(event, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private String eventId(long sequence) {
+        return streamId + ":" + sequence;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % history.length);
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private volatile Thread drainer;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
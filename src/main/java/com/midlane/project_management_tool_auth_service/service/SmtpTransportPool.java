@@ -0,0 +1,112 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of connected SMTP transports, so the STARTTLS handshake and login happen once per connection
+ * instead of once per email. Connections are retired after a maximum number of messages or idle time,
+ * since providers close long-lived sessions on their own.
+ */
+@Component
+@Slf4j
+public class SmtpTransportPool {
+
+    /**
+     * A connected transport and its usage, handed out by {@link #borrow()} and given back with {@link #release}.
+     */
+    public static final class PooledTransport {
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsedNanos;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+            this.lastUsedNanos = System.nanoTime();
+        }
+
+        public Transport transport() {
+            return transport;
+        }
+
+        public void messageSent() {
+            messagesSent++;
+            lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<PooledTransport> idle;
+    private final Counter opened;
+
+    @Value("${app.mail.smtp.pool.max-messages-per-connection:90}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.mail.smtp.pool.max-idle-ms:60000}")
+    private long maxIdleMs;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.mail.smtp.pool.max-idle-connections:8}") int maxIdleConnections) {
+        this.mailSender = mailSender;
+        this.idle = new LinkedBlockingQueue<>(maxIdleConnections);
+        this.opened = meterRegistry.counter("mail.smtp.connections.opened");
+        Gauge.builder("mail.smtp.connections.idle", idle, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public PooledTransport borrow() throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            if (isReusable(pooled)) {
+                return pooled;
+            }
+            close(pooled);
+        }
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        opened.increment();
+        return new PooledTransport(transport);
+    }
+
+    /**
+     * Return a transport to the pool. Pass {@code broken = true} after an I/O error so it is closed instead.
+     */
+    public void release(PooledTransport pooled, boolean broken) {
+        if (broken || pooled.messagesSent >= maxMessagesPerConnection || !idle.offer(pooled)) {
+            close(pooled);
+        }
+    }
+
+    private boolean isReusable(PooledTransport pooled) {
+        long idleMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.lastUsedNanos);
+        return idleMs < maxIdleMs && pooled.transport.isConnected(); // isConnected() sends a NOOP
+    }
+
+    private void close(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            close(pooled);
+        }
+    }
+}
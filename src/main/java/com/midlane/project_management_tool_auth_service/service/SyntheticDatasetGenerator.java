@@ -0,0 +1,321 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.model.AuthProvider;
+import com.midlane.project_management_tool_auth_service.model.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills the schema with synthetic users, refresh tokens and email verifications for performance work
+ * ({@code --spring.profiles.active=seed}, settings in {@code application-seed.properties}).
+ * <p>
+ * Users are generated in chunks; each chunk draws from its own random stream derived from the seed and the chunk
+ * number, so the same seed produces the same rows (timestamps relative to the run) whatever the thread count.
+ * Chunks are inserted in parallel with batched JDBC inserts.
+ * <ul>
+ *   <li>Sessions per user follow a power law: most users have none or a few, a long tail has hundreds.
+ *   At most {@code jwt.max-refresh-tokens-per-user} are live; older ones are revoked or expired as the
+ *   service itself would have left them.</li>
+ *   <li>A share of users sign in through Google or Facebook (no password, verified email); the others are local,
+ *   some of them still unverified with a pending (possibly expired) verification token.</li>
+ * </ul>
+ */
+@Service
+@Profile("seed")
+@Slf4j
+public class SyntheticDatasetGenerator implements CommandLineRunner {
+
+    private record UserRow(String email, boolean local, boolean verified, LocalDateTime createdAt, Object[] values) {
+    }
+
+    private static final String[] FIRST_NAMES = {"Alex", "Sam", "Maria", "Chen", "Priya", "Jonas", "Amara", "Luca",
+            "Noah", "Sofia", "Kenji", "Fatima", "Olga", "Diego", "Aisha", "Tom", "Emma", "Ravi", "Lena", "Omar"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Wang", "Perera", "Muller", "Okafor", "Rossi",
+            "Silva", "Tanaka", "Khan", "Novak", "Lopez", "Haddad", "Brown", "Jensen", "Kumar", "Fischer", "Ali"};
+    private static final String[] DOMAINS = {"gmail.com", "gmail.com", "gmail.com", "outlook.com", "yahoo.com",
+            "icloud.com", "midlane.io", "proton.me"};
+    private static final String[] DEVICES = {"Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/126.0",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_5) Safari/605.1.15",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) Mobile/15E148",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) Chrome/126.0 Mobile",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:127.0) Firefox/127.0", "okhttp/4.12.0"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext applicationContext;
+
+    @Value("${app.seed.users:1000000}")
+    private int users;
+
+    @Value("${app.seed.seed:42}")
+    private long seed;
+
+    @Value("${app.seed.threads:4}")
+    private int threads;
+
+    @Value("${app.seed.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.seed.password:Password123!}")
+    private String password;
+
+    @Value("${app.seed.history-days:730}")
+    private int historyDays;
+
+    @Value("${app.seed.social-share:0.25}")
+    private double socialShare;
+
+    @Value("${app.seed.unverified-share:0.12}")
+    private double unverifiedShare;
+
+    @Value("${app.seed.admin-share:0.001}")
+    private double adminShare;
+
+    // Tail exponent of the sessions-per-user distribution; smaller means a heavier tail
+    @Value("${app.seed.sessions.alpha:1.3}")
+    private double sessionsAlpha;
+
+    @Value("${app.seed.sessions.max-per-user:500}")
+    private int maxSessionsPerUser;
+
+    // Share of sessions ended by an explicit logout rather than by expiry or the per-user limit
+    @Value("${app.seed.sessions.logout-share:0.2}")
+    private double logoutShare;
+
+    @Value("${app.seed.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Value("${jwt.refresh-token.expiration:604800000}")
+    private long refreshTokenExpiration;
+
+    @Value("${jwt.max-refresh-tokens-per-user:5}")
+    private int maxRefreshTokensPerUser;
+
+    @Value("${app.email.verification.expiry-hours:24}")
+    private int verificationExpiryHours;
+
+    private final AtomicLong insertedUsers = new AtomicLong();
+    private final AtomicLong insertedTokens = new AtomicLong();
+    private final AtomicLong insertedVerifications = new AtomicLong();
+
+    public SyntheticDatasetGenerator(JdbcTemplate jdbcTemplate,
+                                     PasswordEncoder passwordEncoder,
+                                     ApplicationContext applicationContext) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        generate();
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    public void generate() throws Exception {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email LIKE ?", Integer.class, "%.seed%@%");
+        if (existing != null && existing > 0) {
+            log.warn("Found {} seeded users already; drop them or use a fresh schema before seeding again", existing);
+            return;
+        }
+
+        // One hash for every local user: bcrypt per row would dominate the run
+        String passwordHash = passwordEncoder.encode(password);
+        LocalDateTime now = LocalDateTime.now();
+        int chunks = (users + chunkSize - 1) / chunkSize;
+        log.info("Seeding {} users in {} chunks on {} threads (seed {})", users, chunks, threads, seed);
+
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Streams are split off in chunk order here, not on the workers, so they do not depend on scheduling
+            SplittableRandom root = new SplittableRandom(seed);
+            List<Future<?>> futures = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int chunkIndex = chunk;
+                SplittableRandom random = root.split();
+                futures.add(executor.submit(() -> {
+                    insertChunk(chunkIndex, random, passwordHash, now);
+                    return null;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).get();
+                if ((i + 1) % 20 == 0 || i + 1 == futures.size()) {
+                    logProgress(i + 1, chunks, started);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertChunk(int chunk, SplittableRandom random, String passwordHash, LocalDateTime now) {
+        int first = chunk * chunkSize;
+        int last = Math.min(users, first + chunkSize);
+
+        List<UserRow> userRows = new ArrayList<>(last - first);
+        List<Object[]> tokens = new ArrayList<>();
+        List<Object[]> verifications = new ArrayList<>();
+        for (int index = first; index < last; index++) {
+            UserRow user = user(index, random, passwordHash, now);
+            userRows.add(user);
+            addSessions(user, random, now, tokens);
+            if (user.local()) {
+                verifications.add(verification(user, random, now));
+            }
+        }
+
+        List<Object[]> userValues = new ArrayList<>(userRows.size());
+        for (UserRow user : userRows) {
+            userValues.add(user.values());
+        }
+        insert("INSERT INTO users (email, password_hash, role, email_verified, provider, provider_id, first_name, " +
+                "last_name, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", userValues);
+        insert("INSERT INTO refresh_tokens (token, user_email, expires_at, created_at, revoked, device_info) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", tokens);
+        // Resolves the generated user id by email, so no round trip is needed to read the ids back
+        insert("INSERT INTO email_verifications (user_id, verification_token, token_expiry, verified_at, created_at) " +
+                "SELECT user_id, ?, ?, ?, ? FROM users WHERE email = ?", verifications);
+
+        insertedUsers.addAndGet(userValues.size());
+        insertedTokens.addAndGet(tokens.size());
+        insertedVerifications.addAndGet(verifications.size());
+    }
+
+    private UserRow user(int index, SplittableRandom random, String passwordHash, LocalDateTime now) {
+        String firstName = pick(FIRST_NAMES, random);
+        String lastName = pick(LAST_NAMES, random);
+        String email = (firstName + "." + lastName).toLowerCase(Locale.ROOT) + ".seed" + index + "@" + pick(DOMAINS, random);
+
+        AuthProvider provider = AuthProvider.LOCAL;
+        if (random.nextDouble() < socialShare) {
+            provider = random.nextDouble() < 0.7 ? AuthProvider.GOOGLE : AuthProvider.FACEBOOK;
+        }
+        boolean local = provider == AuthProvider.LOCAL;
+        boolean verified = !local || random.nextDouble() >= unverifiedShare;
+        Role role = random.nextDouble() < adminShare ? Role.ADMIN : Role.USER;
+
+        // Squared so sign-ups skew towards recent months, like a growing user base
+        double age = random.nextDouble();
+        LocalDateTime createdAt = now.minusMinutes((long) (age * age * historyDays * 24 * 60));
+        LocalDateTime updatedAt = between(createdAt, now, random);
+        String providerId = local ? null : Long.toString(100_000_000_000_000L + random.nextLong(900_000_000_000_000L));
+
+        Object[] values = {email, local ? passwordHash : null, role.name(), verified, provider.name(), providerId,
+                firstName, lastName, Timestamp.valueOf(createdAt), Timestamp.valueOf(updatedAt)};
+        return new UserRow(email, local, verified, createdAt, values);
+    }
+
+    // Newest sessions first: the first few still-valid ones stay live, later ones were revoked when the limit was hit
+    private void addSessions(UserRow user, SplittableRandom random, LocalDateTime now, List<Object[]> tokens) {
+        int sessions = sessionCount(random);
+        if (sessions == 0) {
+            return;
+        }
+        long spanMinutes = Math.max(1, Duration.between(user.createdAt(), now).toMinutes());
+        long[] minutesAgo = new long[sessions];
+        for (int i = 0; i < sessions; i++) {
+            double age = random.nextDouble();
+            minutesAgo[i] = (long) (age * age * age * spanMinutes); // Recent activity is denser than old activity
+        }
+        Arrays.sort(minutesAgo);
+
+        Duration lifetime = Duration.ofMillis(refreshTokenExpiration);
+        int live = 0;
+        for (long ago : minutesAgo) {
+            LocalDateTime createdAt = now.minusMinutes(ago);
+            LocalDateTime expiresAt = createdAt.plus(lifetime);
+            boolean revoked;
+            if (random.nextDouble() < logoutShare) {
+                revoked = true;
+            } else if (expiresAt.isAfter(now)) {
+                revoked = live >= maxRefreshTokensPerUser;
+                if (!revoked) {
+                    live++;
+                }
+            } else {
+                revoked = false; // Expired, not yet swept
+            }
+            tokens.add(new Object[]{uuid(random), user.email(), Timestamp.valueOf(expiresAt),
+                    Timestamp.valueOf(createdAt), revoked, pick(DEVICES, random)});
+        }
+    }
+
+    private Object[] verification(UserRow user, SplittableRandom random, LocalDateTime now) {
+        LocalDateTime createdAt = user.createdAt();
+        LocalDateTime verifiedAt = user.verified()
+                ? createdAt.plusMinutes(1 + random.nextInt(verificationExpiryHours * 60)) : null;
+        if (verifiedAt != null && verifiedAt.isAfter(now)) {
+            verifiedAt = now;
+        }
+        return new Object[]{uuid(random), Timestamp.valueOf(createdAt.plusHours(verificationExpiryHours)),
+                verifiedAt == null ? null : Timestamp.valueOf(verifiedAt), Timestamp.valueOf(createdAt), user.email()};
+    }
+
+    // Discrete Pareto: P(sessions >= k) ~ (k + 1)^-alpha, capped at the configured maximum
+    private int sessionCount(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble(); // (0, 1]
+        double sessions = Math.floor(Math.pow(u, -1.0 / sessionsAlpha)) - 1;
+        return (int) Math.min(maxSessionsPerUser, sessions);
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, (statement, values) -> {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+        });
+    }
+
+    private void logProgress(int done, int chunks, long startedNanos) {
+        double seconds = Math.max(1e-3, (System.nanoTime() - startedNanos) / 1e9);
+        long rows = insertedUsers.get() + insertedTokens.get() + insertedVerifications.get();
+        log.info("Seeded {}/{} chunks: {} users, {} refresh tokens, {} verifications ({} rows/s)",
+                done, chunks, insertedUsers.get(), insertedTokens.get(), insertedVerifications.get(),
+                (long) (rows / seconds));
+    }
+
+    private static LocalDateTime between(LocalDateTime from, LocalDateTime to, SplittableRandom random) {
+        long minutes = Duration.between(from, to).toMinutes();
+        return minutes <= 0 ? from : from.plusMinutes(random.nextLong(minutes + 1));
+    }
+
+    private static String uuid(SplittableRandom random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,113 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.dto.IntrospectionResponse;
+import com.midlane.project_management_tool_auth_service.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token introspection for gateways and downstream services.
+ * Signature checks are cached per token, and revocation is read from in-memory state,
+ * so introspection never touches the database.
+ * Callers authenticate with a shared client secret (RFC 7662 section 2.1); without one configured every call is refused.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenIntrospectionService {
+
+    public static final String CLIENT_SECRET_HEADER = "X-Introspection-Secret";
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+
+    // token -> claims extracted after a successful signature check
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @Value("${app.introspection.cache.max-entries:10000}")
+    private int maxCachedTokens;
+
+    @Value("${app.introspection.client-secret:}")
+    private String clientSecret;
+
+    private record VerifiedToken(String subject, String role, String tokenId, Long issuedAt, long expiresAt) {
+    }
+
+    public boolean isClientSecretValid(String secret) {
+        return !clientSecret.isBlank() && secret != null
+                && MessageDigest.isEqual(clientSecret.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public IntrospectionResponse introspect(String token) {
+        if (token == null || token.isBlank()) {
+            return IntrospectionResponse.inactive();
+        }
+
+        VerifiedToken verified = verifiedTokens.get(token);
+        if (verified == null) {
+            verified = verify(token);
+            if (verified == null) {
+                return IntrospectionResponse.inactive();
+            }
+        }
+
+        if (verified.expiresAt() <= System.currentTimeMillis() / 1000
+                || tokenRevocationService.isRevoked(verified.subject(), verified.tokenId(), verified.issuedAt())) {
+            return IntrospectionResponse.inactive();
+        }
+
+        return IntrospectionResponse.builder()
+                .active(true)
+                .sub(verified.subject())
+                .role(verified.role())
+                .exp(verified.expiresAt())
+                .iat(verified.issuedAt())
+                .jti(verified.tokenId())
+                .tokenType("Bearer")
+                .build();
+    }
+
+    public List<IntrospectionResponse> introspectAll(List<String> tokens) {
+        List<IntrospectionResponse> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(introspect(token));
+        }
+        return results;
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims = jwtUtil.verifyAccessToken(token);
+        if (claims == null) {
+            return null;
+        }
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.getId(),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().getTime() / 1000,
+                claims.getExpiration().getTime() / 1000
+        );
+        // Stop caching when full; the sweeper frees room as tokens expire
+        if (verifiedTokens.size() < maxCachedTokens) {
+            verifiedTokens.put(token, verified);
+        }
+        return verified;
+    }
+
+    @Scheduled(fixedRate = 60000) // Run every minute
+    public void evictExpiredTokens() {
+        long now = System.currentTimeMillis() / 1000;
+        verifiedTokens.values().removeIf(verified -> verified.expiresAt() <= now);
+    }
+}
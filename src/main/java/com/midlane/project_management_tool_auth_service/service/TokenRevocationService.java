@@ -0,0 +1,328 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midlane.project_management_tool_auth_service.dto.AuthEventDto;
+import com.midlane.project_management_tool_auth_service.model.User;
+import com.midlane.project_management_tool_auth_service.repository.UserRepository;
+import com.midlane.project_management_tool_auth_service.security.AccessTokenDenyList;
+import com.midlane.project_management_tool_auth_service.security.RevocationJournal;
+import com.midlane.project_management_tool_auth_service.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation state for access tokens: a per-user "tokens valid after" epoch and a deny-list of single token ids.
+ * Both are consulted by the JWT filter on every request and never touch the database.
+ * Changes are broadcast on the auth events topic so every instance converges, and journaled locally
+ * so a restart replays them from disk instead of querying the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    public static final String TOKEN_EPOCH_EVENT = "TOKEN_EPOCH";
+    public static final String TOKEN_REVOKED_EVENT = "TOKEN_REVOKED";
+    public static final String SNAPSHOT_SECRET_HEADER = "X-Revocation-Secret";
+
+    private final KafkaProducerService kafkaProducerService;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final AccessTokenDenyList accessTokenDenyList;
+    private final JwtUtil jwtUtil;
+    private final RevocationJournal revocationJournal;
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final RevocationStreamService revocationStreamService;
+
+    // subject (email) -> epoch second; tokens with iat up to and including this second are rejected
+    private final Map<String, Long> tokenEpochs = new ConcurrentHashMap<>();
+
+    @Value("${kafka.topics.auth-events:auth.events}")
+    private String authEventsTopic;
+
+    @Value("${app.instance-id:local}")
+    private String instanceId;
+
+    @Value("${jwt.access-token.expiration:900000}") // 15 minutes
+    private long accessTokenExpiration;
+
+    @Value("${app.revocation.bootstrap.peer-url:}")
+    private String bootstrapPeerUrl;
+
+    @Value("${app.revocation.peer-secret:}")
+    private String peerSecret;
+
+    @Value("${app.revocation.bootstrap.connect-timeout-ms:2000}")
+    private long bootstrapConnectTimeoutMs;
+
+    @Value("${app.revocation.bootstrap.read-timeout-ms:10000}")
+    private long bootstrapReadTimeoutMs;
+
+    /**
+     * Invalidate every access token issued to the user up to now.
+     * Sets the persisted epoch on the entity; callers are expected to save the user in their transaction. Inside a
+     * transaction the epoch is applied and broadcast after commit, so a rolled-back change revokes nothing.
+     */
+    public void revokeAllAccessTokens(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        user.setTokensValidAfter(now);
+        String subject = user.getEmail();
+        long epochSecond = toEpochSecond(now);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyAndPublishEpoch(subject, epochSecond);
+                }
+            });
+        } else {
+            applyAndPublishEpoch(subject, epochSecond);
+        }
+    }
+
+    private void applyAndPublishEpoch(String subject, long epochSecond) {
+        applyEpoch(subject, epochSecond);
+        publishEpoch(subject, epochSecond);
+    }
+
+    /**
+     * Revoke a single access token until it expires. Invalid or already expired tokens are ignored.
+     */
+    public void revokeAccessToken(String token) {
+        Claims claims = jwtUtil.verifyAccessToken(token);
+        if (claims == null || claims.getId() == null) {
+            return;
+        }
+        long expiresAt = claims.getExpiration().getTime() / 1000;
+        if (denyToken(claims.getId(), expiresAt)) {
+            publish(AuthEventDto.builder()
+                    .eventType(TOKEN_REVOKED_EVENT)
+                    .subject(claims.getSubject())
+                    .tokenId(claims.getId())
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+    }
+
+    public boolean isRevoked(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        return isRevoked(claims.getSubject(), claims.getId(), issuedAt == null ? null : issuedAt.getTime() / 1000);
+    }
+
+    public boolean isRevoked(String subject, String tokenId, Long issuedAtSecond) {
+        if (tokenId != null && accessTokenDenyList.contains(tokenId)) {
+            return true;
+        }
+        Long epoch = tokenEpochs.get(subject);
+        if (epoch == null) {
+            return false;
+        }
+        // iat only has second precision, so a token from the epoch's own second may predate the change: reject it
+        return issuedAtSecond == null || issuedAtSecond <= epoch;
+    }
+
+    private void applyEpoch(String subject, long epochSecond) {
+        Long previous = tokenEpochs.get(subject);
+        if (previous != null && previous >= epochSecond) {
+            return;
+        }
+        tokenEpochs.merge(subject, epochSecond, Math::max);
+        journal(new RevocationJournal.Entry(RevocationJournal.EPOCH, subject, epochSecond));
+        revocationStreamService.publish(AuthEventDto.builder()
+                .eventType(TOKEN_EPOCH_EVENT)
+                .subject(subject)
+                .epochSecond(epochSecond)
+                .build());
+    }
+
+    private boolean denyToken(String tokenId, long expiresAt) {
+        if (!accessTokenDenyList.add(tokenId, expiresAt)) {
+            return false;
+        }
+        journal(new RevocationJournal.Entry(RevocationJournal.TOKEN, tokenId, expiresAt));
+        revocationStreamService.publish(AuthEventDto.builder()
+                .eventType(TOKEN_REVOKED_EVENT)
+                .tokenId(tokenId)
+                .expiresAt(expiresAt)
+                .build());
+        return true;
+    }
+
+    private synchronized void journal(RevocationJournal.Entry entry) {
+        if (!revocationJournal.isEnabled() || revocationJournal.append(entry)) {
+            return;
+        }
+        // Journal is full: rewrite it from live state (which already contains this entry). Once that has failed,
+        // only the scheduled retry compacts again, so revocations do not each pay for a rewrite that cannot fit
+        if (revocationJournal.isOverflowing() || !compactLiveState()) {
+            revocationJournal.recordLost();
+        }
+    }
+
+    // Replay entries into memory only; they are already journaled (or are being compacted into the journal)
+    private void restore(RevocationJournal.Entry entry) {
+        if (entry.type() == RevocationJournal.EPOCH) {
+            tokenEpochs.merge(entry.key(), entry.value(), Math::max);
+        } else if (entry.type() == RevocationJournal.TOKEN) {
+            accessTokenDenyList.add(entry.key(), entry.value());
+        }
+    }
+
+    private void publishEpoch(String subject, long epochSecond) {
+        publish(AuthEventDto.builder()
+                .eventType(TOKEN_EPOCH_EVENT)
+                .subject(subject)
+                .epochSecond(epochSecond)
+                .build());
+    }
+
+    private void publish(AuthEventDto event) {
+        try {
+            event.setOrigin(instanceId);
+            kafkaProducerService.sendMessageWithKey(authEventsTopic, event.getSubject(), objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.error("Failed to publish {} event for subject: {}", event.getEventType(), event.getSubject(), e);
+        }
+    }
+
+    /**
+     * Apply a revocation event received from the auth events topic; see {@link CacheCoherenceService}.
+     * Events from this instance are applied too, which is harmless since both operations are idempotent.
+     */
+    public void applyAuthEvent(AuthEventDto event) {
+        if (TOKEN_EPOCH_EVENT.equals(event.getEventType()) && event.getSubject() != null
+                && event.getEpochSecond() != null) {
+            applyEpoch(event.getSubject(), event.getEpochSecond());
+        } else if (TOKEN_REVOKED_EVENT.equals(event.getEventType()) && event.getTokenId() != null
+                && event.getExpiresAt() != null) {
+            denyToken(event.getTokenId(), event.getExpiresAt());
+        }
+    }
+
+    /**
+     * Restore revocation state at startup: replay the local journal, or bootstrap from a peer snapshot
+     * when the journal is empty. Only without a journal does this fall back to the database.
+     * Runs during bean initialization, so the web server and the Kafka listeners only start once it is done.
+     */
+    @PostConstruct
+    public void restoreState() {
+        long started = System.currentTimeMillis();
+        if (revocationJournal.isEnabled()) {
+            revocationJournal.replay(this::restore);
+            if (revocationJournal.size() == 0 && !bootstrapPeerUrl.isBlank()) {
+                bootstrapFromPeer();
+            }
+        } else {
+            loadRecentEpochs();
+        }
+        evictExpiredEpochs();
+        accessTokenDenyList.evictExpired();
+        accessTokenDenyList.rebuild();
+        compactJournal();
+        log.info("Restored {} token epochs and {} revoked tokens in {} ms",
+                tokenEpochs.size(), accessTokenDenyList.size(), System.currentTimeMillis() - started);
+    }
+
+    // Own client with bounded timeouts: an unresponsive peer must not hold up startup
+    private void bootstrapFromPeer() {
+        RestTemplate peerClient = restTemplateBuilder
+                .connectTimeout(Duration.ofMillis(bootstrapConnectTimeoutMs))
+                .readTimeout(Duration.ofMillis(bootstrapReadTimeoutMs))
+                .build();
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(SNAPSHOT_SECRET_HEADER, peerSecret);
+            byte[] snapshot = peerClient.exchange(bootstrapPeerUrl + "/api/auth/internal/revocations/snapshot",
+                    HttpMethod.GET, new HttpEntity<>(headers), byte[].class).getBody();
+            if (snapshot != null) {
+                RevocationJournal.decodeSnapshot(snapshot).forEach(this::restore);
+                log.info("Bootstrapped revocation state from peer {}", bootstrapPeerUrl);
+            }
+        } catch (Exception e) {
+            log.warn("Could not bootstrap revocation state from peer {}: {}", bootstrapPeerUrl, e.getMessage());
+        }
+    }
+
+    // Only epochs younger than the access token lifetime can still reject a token
+    private void loadRecentEpochs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(accessTokenExpiration * 1_000_000);
+        for (User user : userRepository.findByTokensValidAfterAfter(cutoff)) {
+            tokenEpochs.merge(user.getEmail(), toEpochSecond(user.getTokensValidAfter()), Math::max);
+        }
+    }
+
+    /**
+     * Live revocation state in journal form, used for compaction and peer snapshots.
+     */
+    public List<RevocationJournal.Entry> liveEntries() {
+        Map<String, Long> revokedTokens = accessTokenDenyList.snapshot();
+        List<RevocationJournal.Entry> entries = new ArrayList<>(tokenEpochs.size() + revokedTokens.size());
+        tokenEpochs.forEach((subject, epoch) ->
+                entries.add(new RevocationJournal.Entry(RevocationJournal.EPOCH, subject, epoch)));
+        revokedTokens.forEach((tokenId, expiresAt) ->
+                entries.add(new RevocationJournal.Entry(RevocationJournal.TOKEN, tokenId, expiresAt)));
+        return entries;
+    }
+
+    public byte[] snapshot() {
+        return RevocationJournal.encodeSnapshot(liveEntries());
+    }
+
+    public boolean isPeerSecretValid(String secret) {
+        return !peerSecret.isBlank() && secret != null
+                && MessageDigest.isEqual(peerSecret.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Scheduled(fixedRate = 3600000) // Run every hour
+    public void compactJournal() {
+        compactLiveState();
+    }
+
+    @Scheduled(fixedRate = 60000) // Run every minute
+    public void retryOverflowingJournal() {
+        if (revocationJournal.isOverflowing()) {
+            compactLiveState();
+        }
+    }
+
+    private synchronized boolean compactLiveState() {
+        if (!revocationJournal.isEnabled()) {
+            return true;
+        }
+        evictExpiredEpochs();
+        return revocationJournal.compact(liveEntries());
+    }
+
+    @Scheduled(fixedRate = 60000) // Run every minute
+    public void evictExpiredEpochs() {
+        long cutoff = (System.currentTimeMillis() - accessTokenExpiration) / 1000;
+        tokenEpochs.values().removeIf(epoch -> epoch < cutoff);
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -1,42 +1,160 @@
 package com.midlane.project_management_tool_auth_service.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midlane.project_management_tool_auth_service.dto.UserEvent;
 import com.midlane.project_management_tool_auth_service.dto.UserEventDto;
+import com.midlane.project_management_tool_auth_service.model.OutboxEvent;
 import com.midlane.project_management_tool_auth_service.model.User;
+import com.midlane.project_management_tool_auth_service.repository.OutboxEventRepository;
+import com.midlane.project_management_tool_auth_service.util.UserEventBinaryCodec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserEventService {
 
-    private final KafkaProducerService kafkaProducerService;
+    public static final String USER_SNAPSHOT_EVENT = "USER_SNAPSHOT";
+    private static final String EVENT_SOURCE = "auth-service";
+
+    private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
+    private final CacheCoherenceService cacheCoherenceService;
+    private final EntityManager entityManager;
 
     @Value("${kafka.topics.user.added:user.added}")
     private String userAddedTopic;
 
+    @Value("${kafka.topics.user.updated:user.updated}")
+    private String userUpdatedTopic;
+
+    @Value("${kafka.topics.user.deleted:user.deleted}")
+    private String userDeletedTopic;
+
+    @Value("${kafka.topics.user.snapshot:user.snapshot}")
+    private String userSnapshotTopic;
+
+    @Value("${app.events.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    // When disabled every event type goes to the user.added topic, as before per-type routing
+    @Value("${app.events.route-by-type:true}")
+    private boolean routeByType;
+
+    @Value("${app.events.encoding:json}") // json or binary
+    private String encoding;
+
+    /**
+     * Record a user event in the outbox as part of the caller's transaction, together with the user's latest state
+     * for the compacted snapshot topic. The events reach Kafka only if that transaction commits; see {@link OutboxRelay}.
+     */
+    @Transactional
     public void publishUserEvent(User user, String eventType) {
+        // Row lock before the outbox ids are taken, so a concurrent snapshot re-publish of this user is numbered
+        // either before this event or after this transaction commits
+        if (entityManager.contains(user)) {
+            entityManager.lock(user, LockModeType.PESSIMISTIC_WRITE);
+        }
         try {
-            UserEventDto userEvent = new UserEventDto(
-                user.getUserId(),
-                user.getEmail(),
-                eventType
-            );
-
-            String message = objectMapper.writeValueAsString(userEvent);
-            kafkaProducerService.sendMessageWithKey(
-                userAddedTopic, 
-                user.getUserId().toString(), 
-                message
-            );
-
-            log.info("Published user event: {} for user: {}", eventType, user.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to publish user event: {} for user: {}", eventType, user.getEmail(), e);
+            OutboxEvent.OutboxEventBuilder outboxEvent = OutboxEvent.builder()
+                    .topic(topicFor(eventType))
+                    .messageKey(user.getUserId().toString())
+                    .eventType(eventType);
+
+            if (isBinary()) {
+                outboxEvent.payload(UserEventBinaryCodec.encode(toUserEvent(user, eventType)))
+                        .contentType(UserEventBinaryCodec.CONTENT_TYPE)
+                        .schemaVersion(UserEventBinaryCodec.SCHEMA_VERSION);
+            } else {
+                UserEventDto userEvent = new UserEventDto(
+                    user.getUserId(),
+                    user.getEmail(),
+                    eventType
+                );
+                outboxEvent.payload(objectMapper.writeValueAsBytes(userEvent))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE);
+            }
+
+            outboxEventRepository.save(outboxEvent.build());
+            if (snapshotEnabled) {
+                outboxEventRepository.save("USER_DELETED".equals(eventType) ? snapshotTombstone(user) : snapshotEvent(user));
+            }
+            cacheCoherenceService.invalidateUser(user.getEmail());
+            log.debug("Queued user event: {} for user id: {}", eventType, user.getUserId());
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize user event: {} for user id: {}", eventType, user.getUserId(), e);
         }
     }
+
+    /**
+     * Latest state of a user for the compacted snapshot topic, keyed by user id. Not persisted here; callers save
+     * it to the outbox in their own transaction.
+     */
+    public OutboxEvent snapshotEvent(User user) throws JsonProcessingException {
+        UserEvent snapshot = toUserEvent(user, USER_SNAPSHOT_EVENT);
+        OutboxEvent.OutboxEventBuilder outboxEvent = OutboxEvent.builder()
+                .topic(userSnapshotTopic)
+                .messageKey(user.getUserId().toString())
+                .eventType(USER_SNAPSHOT_EVENT);
+        if (isBinary()) {
+            return outboxEvent.payload(UserEventBinaryCodec.encode(snapshot))
+                    .contentType(UserEventBinaryCodec.CONTENT_TYPE)
+                    .schemaVersion(UserEventBinaryCodec.SCHEMA_VERSION)
+                    .build();
+        }
+        return outboxEvent.payload(objectMapper.writeValueAsBytes(snapshot))
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+
+    // A null payload deletes the user from the compacted topic
+    private OutboxEvent snapshotTombstone(User user) {
+        return OutboxEvent.builder()
+                .topic(userSnapshotTopic)
+                .messageKey(user.getUserId().toString())
+                .eventType(USER_SNAPSHOT_EVENT)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+
+    private boolean isBinary() {
+        return "binary".equalsIgnoreCase(encoding);
+    }
+
+    private String topicFor(String eventType) {
+        if (!routeByType) {
+            return userAddedTopic;
+        }
+        return switch (eventType) {
+            case "USER_UPDATED" -> userUpdatedTopic;
+            case "USER_DELETED" -> userDeletedTopic;
+            default -> userAddedTopic;
+        };
+    }
+
+    private UserEvent toUserEvent(User user, String eventType) {
+        return UserEvent.builder()
+                .eventType(eventType)
+                .userId(user.getUserId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole() != null ? user.getRole().name() : null)
+                .provider(user.getProvider() != null ? user.getProvider().name() : null)
+                .timestamp(LocalDateTime.now(ZoneOffset.UTC))
+                .eventSource(EVENT_SOURCE)
+                .eventVersion(String.valueOf(UserEventBinaryCodec.SCHEMA_VERSION))
+                .build();
+    }
 }
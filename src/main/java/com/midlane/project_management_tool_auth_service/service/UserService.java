@@ -1,13 +1,16 @@
 package com.midlane.project_management_tool_auth_service.service;
 
 import com.midlane.project_management_tool_auth_service.dto.*;
+import com.midlane.project_management_tool_auth_service.model.ActionType;
 import com.midlane.project_management_tool_auth_service.model.AuthProvider;
 import com.midlane.project_management_tool_auth_service.model.RefreshToken;
 import com.midlane.project_management_tool_auth_service.model.Role;
 import com.midlane.project_management_tool_auth_service.model.User;
 import com.midlane.project_management_tool_auth_service.repository.UserRepository;
 import com.midlane.project_management_tool_auth_service.util.JwtUtil;
+import com.midlane.project_management_tool_auth_service.util.PhaseTimer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -26,6 +29,7 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class UserService {
 
     private final UserRepository userRepository;
@@ -37,43 +41,59 @@ public class UserService {
     private final RefreshTokenService refreshTokenService;
     private final UserEventService userEventService;
     private final SocialAuthService socialAuthService;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuditService auditService;
+    private final PhaseTimer phaseTimer;
 
     @Value("${jwt.access-token.expiration}") // 15 minutes
     private long accessTokenExpiration;
 
     public AuthResponse registerUser(RegisterRequest request, String deviceInfo) {
         // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (phaseTimer.record(PhaseTimer.REGISTER, "email-check", () -> userRepository.existsByEmail(request.getEmail()))) {
             throw new RuntimeException("Email is already in use");
         }
 
         // Create new user
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(phaseTimer.record(PhaseTimer.REGISTER, "password-hash",
+                () -> passwordEncoder.encode(request.getPassword())));
         user.setPhone(request.getPhone());
         user.setRole(Role.USER); // Default to USER role
         user.setEmailVerified(false); // Email not verified initially
         user.setPasswordLastChanged(LocalDateTime.now());
         user.setEmailLastChanged(LocalDateTime.now());
 
-        User savedUser = userRepository.save(user);
+        User savedUser = phaseTimer.record(PhaseTimer.REGISTER, "user-save", () -> userRepository.save(user));
 
         // Publish user registration event to Kafka
-        userEventService.publishUserEvent(savedUser, "USER_CREATED");
+        phaseTimer.run(PhaseTimer.REGISTER, "event-publish",
+                () -> userEventService.publishUserEvent(savedUser, "USER_CREATED"));
 
-        // Send verification email asynchronously
+        // Create the verification token and queue the email; SMTP runs on the mail executor
         EmailVerificationRequest verificationRequest = EmailVerificationRequest.builder()
             .email(savedUser.getEmail())
             .build();
-        emailVerificationService.sendVerificationEmail(verificationRequest);
+        try {
+            phaseTimer.run(PhaseTimer.REGISTER, "email-enqueue",
+                    () -> emailVerificationService.sendVerificationEmail(verificationRequest));
+        } catch (RuntimeException e) {
+            // The account exists either way; the user can request a new verification email
+            log.warn("Could not queue verification email for new user: {}", savedUser.getEmail());
+        }
 
         // Generate tokens using RSA
-        UserDetails userDetails = userDetailsService.loadUserByUsername(savedUser.getEmail());
-        String accessToken = jwtUtil.generateAccessToken(userDetails);
+        UserDetails userDetails = phaseTimer.record(PhaseTimer.REGISTER, "user-load",
+                () -> userDetailsService.loadUserByUsername(savedUser.getEmail()));
+        String accessToken = phaseTimer.record(PhaseTimer.REGISTER, "token-sign",
+                () -> jwtUtil.generateAccessToken(userDetails));
 
         // Create refresh token
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(userDetails, deviceInfo);
+        RefreshToken refreshToken = phaseTimer.record(PhaseTimer.REGISTER, "refresh-token-create",
+                () -> refreshTokenService.createRefreshToken(userDetails, deviceInfo));
+
+        auditService.record(ActionType.USER_REGISTRATION, savedUser.getEmail(), deviceInfo);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -88,20 +108,26 @@ public class UserService {
     public AuthResponse loginUser(LoginRequest request, String deviceInfo) {
         try {
             // Use the properly configured AuthenticationManager
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
+            // User lookup and password check; the hash alone is timed as auth.password.hash
+            Authentication authentication = phaseTimer.record(PhaseTimer.LOGIN, "authenticate",
+                    () -> authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())));
 
             // Find User by email to get userId and role
-            User user = userRepository.findByEmail(request.getEmail())
+            User user = phaseTimer.record(PhaseTimer.LOGIN, "user-lookup", () -> userRepository.findByEmail(request.getEmail()))
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Generate tokens using RSA
-            UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
-            String accessToken = jwtUtil.generateAccessToken(userDetails);
+            UserDetails userDetails = phaseTimer.record(PhaseTimer.LOGIN, "user-load",
+                    () -> userDetailsService.loadUserByUsername(request.getEmail()));
+            String accessToken = phaseTimer.record(PhaseTimer.LOGIN, "token-sign",
+                    () -> jwtUtil.generateAccessToken(userDetails));
 
             // Create refresh token
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(userDetails, deviceInfo);
+            RefreshToken refreshToken = phaseTimer.record(PhaseTimer.LOGIN, "refresh-token-create",
+                    () -> refreshTokenService.createRefreshToken(userDetails, deviceInfo));
+
+            auditService.record(ActionType.USER_LOGIN, user.getEmail(), deviceInfo);
 
             return AuthResponse.builder()
                     .accessToken(accessToken)
@@ -113,19 +139,24 @@ public class UserService {
                     .build();
 
         } catch (AuthenticationException e) {
+            auditService.record(ActionType.SECURITY_VIOLATION, request.getEmail(), "Failed login from " + deviceInfo);
             throw new BadCredentialsException("Invalid email or password");
         }
     }
 
     @Transactional
     public RefreshTokenResponse refreshAccessToken(RefreshTokenRequest request) {
-        RefreshToken refreshToken = refreshTokenService.findByToken(request.getRefreshToken())
+        RefreshToken found = phaseTimer.record(PhaseTimer.REFRESH, "refresh-token-lookup",
+                        () -> refreshTokenService.findByToken(request.getRefreshToken()))
                 .orElseThrow(() -> new RuntimeException("Refresh token not found"));
 
-        refreshToken = refreshTokenService.verifyExpiration(refreshToken);
+        RefreshToken refreshToken = phaseTimer.record(PhaseTimer.REFRESH, "refresh-token-verify",
+                () -> refreshTokenService.verifyExpiration(found));
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(refreshToken.getUserEmail());
-        String newAccessToken = jwtUtil.generateAccessToken(userDetails);
+        UserDetails userDetails = phaseTimer.record(PhaseTimer.REFRESH, "user-load",
+                () -> userDetailsService.loadUserByUsername(refreshToken.getUserEmail()));
+        String newAccessToken = phaseTimer.record(PhaseTimer.REFRESH, "token-sign",
+                () -> jwtUtil.generateAccessToken(userDetails));
 
         return RefreshTokenResponse.builder()
                 .accessToken(newAccessToken)
@@ -160,6 +191,9 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setPasswordLastChanged(LocalDateTime.now());
 
+        // Invalidate access tokens issued with the old password
+        tokenRevocationService.revokeAllAccessTokens(user);
+
         // Save the updated user
         userRepository.save(user);
 
@@ -168,6 +202,8 @@ public class UserService {
 
         // Revoke all refresh tokens for security after password change
         refreshTokenService.revokeAllUserTokens(user.getEmail());
+
+        auditService.record(ActionType.PASSWORD_RESET, user.getEmail(), "Reset by administrator");
     }
 
     @Transactional
@@ -184,6 +220,9 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setPasswordLastChanged(LocalDateTime.now());
 
+        // Invalidate access tokens issued with the old password
+        tokenRevocationService.revokeAllAccessTokens(user);
+
         // Save the updated user
         userRepository.save(user);
 
@@ -192,6 +231,8 @@ public class UserService {
 
         // Revoke all refresh tokens for security after password change
         refreshTokenService.revokeAllUserTokens(user.getEmail());
+
+        auditService.record(ActionType.PASSWORD_CHANGE, user.getEmail(), null);
     }
 
     @Transactional
@@ -201,6 +242,9 @@ public class UserService {
 
         user.setRole(newRole);
 
+        // Invalidate access tokens carrying the old role claim
+        tokenRevocationService.revokeAllAccessTokens(user);
+
         // Save the updated user
         userRepository.save(user);
 
@@ -210,6 +254,8 @@ public class UserService {
         // Revoke all refresh tokens when role changes for security
         // This forces the user to log in again to get tokens with updated role claims
         refreshTokenService.revokeAllUserTokens(user.getEmail());
+
+        auditService.record(ActionType.PERMISSION_GRANTED, user.getEmail(), "Role set to " + newRole.name());
     }
 
     @Transactional
@@ -220,11 +266,27 @@ public class UserService {
         // Publish user deleted event to Kafka before deletion
         userEventService.publishUserEvent(user, "USER_DELETED");
 
-        // Revoke all refresh tokens
+        // Revoke all refresh and access tokens
         refreshTokenService.revokeAllUserTokens(user.getEmail());
+        tokenRevocationService.revokeAllAccessTokens(user);
 
         // Delete user
         userRepository.delete(user);
+
+        auditService.record(ActionType.DATA_MODIFICATION, user.getEmail(), "User deleted");
+    }
+
+    @Transactional
+    public void logoutAllDevices(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Revoke all refresh tokens and every access token issued so far; the epoch is persisted on the user
+        refreshTokenService.revokeAllUserTokens(userEmail);
+        tokenRevocationService.revokeAllAccessTokens(user);
+        userRepository.save(user);
+
+        auditService.record(ActionType.USER_LOGOUT, userEmail, "All devices");
     }
 
     public User findById(Long userId) {
@@ -284,6 +346,9 @@ public class UserService {
         // Create refresh token with default device info for social login
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(userDetails, "Social Login - " + request.getProvider());
 
+        auditService.record(isNewUser ? ActionType.USER_REGISTRATION : ActionType.USER_LOGIN, user.getEmail(),
+                "Social Login - " + request.getProvider());
+
         return AuthResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken.getToken())
@@ -0,0 +1,166 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.midlane.project_management_tool_auth_service.dto.SnapshotJobStatus;
+import com.midlane.project_management_tool_auth_service.model.OutboxEvent;
+import com.midlane.project_management_tool_auth_service.model.User;
+import com.midlane.project_management_tool_auth_service.repository.OutboxEventRepository;
+import com.midlane.project_management_tool_auth_service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin-triggered job that re-publishes every user to the compacted snapshot topic.
+ * <p>
+ * Users are walked in id order in batches. Each batch re-reads its users under shared row locks and writes their
+ * USER_SNAPSHOT rows to the outbox in the same short transaction, so the {@link OutboxRelay} sends them in order
+ * with every other event: a user deleted or updated meanwhile is either skipped or snapshotted after the change,
+ * never sent stale after it. The job is throttled to a maximum rate and pauses while the outbox backlog is large,
+ * so a full re-publish does not starve normal traffic. Only one job runs at a time.
+ */
+@Service
+@Slf4j
+public class UserSnapshotPublisher {
+
+    private static final long BACKLOG_POLL_MS = 200;
+
+    private final UserRepository userRepository;
+    private final UserEventService userEventService;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transaction;
+
+    @Value("${app.events.snapshot.republish.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.events.snapshot.republish.max-rate-per-second:5000}")
+    private int maxRatePerSecond;
+
+    @Value("${app.events.snapshot.republish.max-outbox-backlog:10000}")
+    private long maxOutboxBacklog;
+
+    private volatile String state = "IDLE";
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public UserSnapshotPublisher(UserRepository userRepository,
+                                 UserEventService userEventService,
+                                 OutboxEventRepository outboxEventRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.userEventService = userEventService;
+        this.outboxEventRepository = outboxEventRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Start a re-publish in the background. Returns false when a job is already running.
+     */
+    public synchronized boolean start() {
+        if ("RUNNING".equals(state)) {
+            return false;
+        }
+        queued.set(0);
+        skipped.set(0);
+        error = null;
+        finishedAt = null;
+        startedAt = LocalDateTime.now();
+        state = "RUNNING";
+        Thread.ofVirtual().name("user-snapshot-republish").start(this::run);
+        return true;
+    }
+
+    public SnapshotJobStatus getStatus() {
+        return SnapshotJobStatus.builder()
+                .state(state)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .queued(queued.get())
+                .skipped(skipped.get())
+                .error(error)
+                .build();
+    }
+
+    private void run() {
+        try {
+            enqueueAll();
+            finish("COMPLETED", null);
+            log.info("Queued {} user snapshots for the snapshot topic ({} users gone before they were read)",
+                    queued.get(), skipped.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish("FAILED", "Re-publish interrupted");
+        } catch (Exception e) {
+            finish("FAILED", e.getMessage());
+            log.error("User snapshot re-publish failed after {} users", queued.get(), e);
+        }
+    }
+
+    private synchronized void finish(String finalState, String failure) {
+        error = failure;
+        finishedAt = LocalDateTime.now();
+        state = finalState;
+    }
+
+    private void enqueueAll() throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = userRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+            awaitOutboxBacklog();
+            List<Long> batch = ids;
+            transaction.executeWithoutResult(tx -> enqueueBatch(batch));
+            afterId = ids.get(ids.size() - 1);
+            throttle(startNanos, queued.get() + skipped.get());
+        }
+    }
+
+    private void enqueueBatch(List<Long> ids) {
+        List<User> users = userRepository.lockAllById(ids);
+        List<OutboxEvent> snapshots = new ArrayList<>(users.size());
+        try {
+            for (User user : users) {
+                snapshots.add(userEventService.snapshotEvent(user));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize user snapshot", e);
+        }
+        outboxEventRepository.saveAll(snapshots);
+        queued.addAndGet(snapshots.size());
+        skipped.addAndGet(ids.size() - users.size());
+    }
+
+    // Let the relay catch up rather than growing the outbox table by the size of the users table
+    private void awaitOutboxBacklog() throws InterruptedException {
+        if (maxOutboxBacklog <= 0) {
+            return;
+        }
+        while (outboxEventRepository.count() > maxOutboxBacklog) {
+            TimeUnit.MILLISECONDS.sleep(BACKLOG_POLL_MS);
+        }
+    }
+
+    // Sleep until the overall rate is back under the configured maximum
+    private void throttle(long startNanos, long sent) throws InterruptedException {
+        if (maxRatePerSecond <= 0) {
+            return;
+        }
+        long targetNanos = TimeUnit.SECONDS.toNanos(sent) / maxRatePerSecond;
+        long aheadNanos = targetNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+}
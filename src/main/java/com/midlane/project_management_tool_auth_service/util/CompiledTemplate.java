@@ -0,0 +1,111 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A text template parsed once into UTF-8 byte fragments and {@code {{name}}} slots.
+ * <p>
+ * Rendering writes the shared fragments and the slot values straight to the output, so no intermediate string of
+ * the whole document is built. Slot values are inserted as-is; a missing value is an error.
+ */
+public final class CompiledTemplate {
+
+    private static final String SLOT_START = "{{";
+    private static final String SLOT_END = "}}";
+
+    private final byte[][] fragments; // One more fragment than slots: fragment, slot, fragment, ..., fragment
+    private final String[] slots;
+    private final int staticLength;
+
+    private CompiledTemplate(byte[][] fragments, String[] slots) {
+        this.fragments = fragments;
+        this.slots = slots;
+        int length = 0;
+        for (byte[] fragment : fragments) {
+            length += fragment.length;
+        }
+        this.staticLength = length;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<byte[]> fragments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int start = source.indexOf(SLOT_START, position);
+            if (start < 0) {
+                break;
+            }
+            int end = source.indexOf(SLOT_END, start + SLOT_START.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed template slot at offset " + start);
+            }
+            fragments.add(source.substring(position, start).getBytes(StandardCharsets.UTF_8));
+            slots.add(source.substring(start + SLOT_START.length(), end).trim());
+            position = end + SLOT_END.length();
+        }
+        fragments.add(source.substring(position).getBytes(StandardCharsets.UTF_8));
+        return new CompiledTemplate(fragments.toArray(new byte[0][]), slots.toArray(new String[0]));
+    }
+
+    public List<String> slots() {
+        return List.of(slots);
+    }
+
+    // Size of the static fragments; add the slot values for the rendered size
+    public int staticLength() {
+        return staticLength;
+    }
+
+    public void writeTo(OutputStream out, Map<String, String> params) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.write(fragments[i]);
+            out.write(value(params, slots[i]));
+        }
+        out.write(fragments[slots.length]);
+    }
+
+    // For short templates such as subject lines
+    public String render(Map<String, String> params) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(staticLength + 64);
+        try {
+            writeTo(out, params);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stream the rendered template. The static fragments are shared, not copied, so this is cheap to call repeatedly
+     * (e.g. by a mail DataHandler that reads its source more than once).
+     */
+    public InputStream open(Map<String, String> params) {
+        List<InputStream> parts = new ArrayList<>(fragments.length + slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            parts.add(new ByteArrayInputStream(fragments[i]));
+            parts.add(new ByteArrayInputStream(value(params, slots[i])));
+        }
+        parts.add(new ByteArrayInputStream(fragments[slots.length]));
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    private static byte[] value(Map<String, String> params, String slot) {
+        String value = params.get(slot);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing template parameter: " + slot);
+        }
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
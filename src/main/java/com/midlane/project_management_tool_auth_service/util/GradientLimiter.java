@@ -0,0 +1,114 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to latency, after the gradient algorithm of Netflix's concurrency-limits.
+ * <p>
+ * Two moving averages of request latency are kept: a short one that follows current conditions and a long one
+ * that approximates the unloaded latency. While the short average stays within {@code tolerance} of the long
+ * one the limit grows by roughly its square root per update; once queueing pushes it higher, the limit shrinks in
+ * proportion (never below half per update). Samples taken while less than half the limit is in use say nothing
+ * about capacity and are ignored for the limit.
+ */
+public class GradientLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double shortFactor;
+    private final double longFactor;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+    private boolean sampled;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                           int shortWindow, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.shortFactor = 2.0 / (shortWindow + 1);
+        this.longFactor = 2.0 / (longWindow + 1);
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admit a request if the limit allows it.
+     *
+     * @return the number of requests in flight including this one, or -1 if it was rejected
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Complete an admitted request and learn from its latency.
+     *
+     * @param inflightAtStart the value {@link #tryAcquire()} returned for it
+     */
+    public void release(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+        update(rttNanos, inflightAtStart);
+    }
+
+    /**
+     * Complete an admitted request without a latency sample, e.g. when it was turned away after all.
+     */
+    public void cancel() {
+        inflight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inflightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (!sampled) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            sampled = true;
+        } else {
+            shortRtt += (rttNanos - shortRtt) * shortFactor;
+            longRtt += (rttNanos - longRtt) * longFactor;
+        }
+
+        // After a lasting drop in latency the long average would hold the limit back for too long
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        if (inflightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,96 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline summary of the auth service's Flight Recorder events: one latency table row per phase, split by the
+ * field that matters for it (token type, operation, topic, outcome).
+ * <p>
+ * Usage: {@code java -cp <classes or jar> com.midlane.project_management_tool_auth_service.util.JfrAnalyzer file.jfr}
+ */
+public final class JfrAnalyzer {
+
+    private JfrAnalyzer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    public static Map<String, long[]> summarize(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String phase = phase(event);
+                if (phase != null) {
+                    durations.computeIfAbsent(phase, key -> new ArrayList<>()).add(event.getDuration().toNanos());
+                }
+            }
+        }
+
+        Map<String, long[]> sorted = new TreeMap<>();
+        durations.forEach((phase, values) -> {
+            long[] nanos = values.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(nanos);
+            sorted.put(phase, nanos);
+        });
+        return sorted;
+    }
+
+    public static void print(Map<String, long[]> summary, PrintStream out) {
+        if (summary.isEmpty()) {
+            out.println("No auth.* events in this recording; was it started with jfr/auth-service.jfc?");
+            return;
+        }
+        out.printf("%-44s %9s %10s %10s %10s %10s %10s%n", "phase", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        summary.forEach((phase, nanos) -> {
+            long total = 0;
+            for (long value : nanos) {
+                total += value;
+            }
+            out.printf("%-44s %9d %10.3f %10.3f %10.3f %10.3f %10.3f%n", phase, nanos.length,
+                    millis(total / nanos.length), millis(percentile(nanos, 0.50)), millis(percentile(nanos, 0.90)),
+                    millis(percentile(nanos, 0.99)), millis(nanos[nanos.length - 1]));
+        });
+    }
+
+    private static String phase(RecordedEvent event) {
+        String name = event.getEventType().getName();
+        return switch (name) {
+            case "auth.TokenSign" -> "token-sign " + event.getString("tokenType");
+            case "auth.TokenVerify" -> "token-verify " + event.getString("tokenType")
+                    + (event.getBoolean("valid") ? "" : " invalid");
+            case "auth.PasswordHash" -> "password-hash " + event.getString("operation");
+            case "auth.RefreshTokenCreate" -> "refresh-token-create"
+                    + (event.getInt("revokedRows") > 0 ? " with-revocation" : "");
+            case "auth.KafkaSend" -> "kafka-send " + event.getString("topic")
+                    + (event.getBoolean("success") ? "" : " failed");
+            default -> null;
+        };
+    }
+
+    // Nearest-rank percentile over sorted values
+    private static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,174 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Flight Recorder events for the auth hot paths. They cost next to nothing unless a recording enables them
+ * (see {@code jfr/auth-service.jfc}); {@link JfrAnalyzer} turns a recording into per-phase latency tables.
+ * Subjects are recorded as {@link #subjectHash(String) keyed hashes} so recordings carry no email addresses and a
+ * recording cannot be matched against a list of candidate emails without the key.
+ */
+public final class JfrEvents {
+
+    public static final String CATEGORY = "Auth Service";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SUBJECT_HASH_BYTES = 8;
+
+    // Random per process until a deployment key is set, so hashes are never unkeyed
+    private static volatile SubjectHasher subjectHasher = new SubjectHasher(randomKey());
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Use a per-deployment key so the same subject hashes alike across instances and restarts.
+     */
+    public static void setSubjectHashKey(byte[] key) {
+        subjectHasher = new SubjectHasher(key);
+    }
+
+    /**
+     * Truncated HMAC-SHA256 of the subject, as 16 hex characters.
+     */
+    public static String subjectHash(String subject) {
+        return subject == null ? null : subjectHasher.hash(subject);
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    // Mac instances are not thread-safe; one per thread and key
+    private static final class SubjectHasher {
+        private final ThreadLocal<Mac> macs;
+
+        SubjectHasher(byte[] key) {
+            SecretKeySpec spec = new SecretKeySpec(key.clone(), HMAC_ALGORITHM);
+            this.macs = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                    mac.init(spec);
+                    return mac;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+                }
+            });
+        }
+
+        String hash(String subject) {
+            byte[] digest = macs.get().doFinal(subject.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, SUBJECT_HASH_BYTES);
+        }
+    }
+
+    @Name("auth.TokenSign")
+    @Label("Token Sign")
+    @Category({CATEGORY, "Token"})
+    @Description("Signing a JWT")
+    @StackTrace(false)
+    public static class TokenSign extends Event {
+        @Label("Subject Hash")
+        public String subjectHash;
+
+        @Label("Algorithm")
+        public String algorithm;
+
+        @Label("Token Type")
+        public String tokenType;
+
+        @Label("Token Length")
+        @DataAmount
+        public int tokenLength;
+    }
+
+    @Name("auth.TokenVerify")
+    @Label("Token Verify")
+    @Category({CATEGORY, "Token"})
+    @Description("Parsing and verifying a JWT signature")
+    @StackTrace(false)
+    public static class TokenVerify extends Event {
+        @Label("Subject Hash")
+        public String subjectHash;
+
+        @Label("Algorithm")
+        public String algorithm;
+
+        @Label("Token Type")
+        public String tokenType;
+
+        @Label("Valid")
+        public boolean valid;
+    }
+
+    @Name("auth.PasswordHash")
+    @Label("Password Hash")
+    @Category({CATEGORY, "Password"})
+    @Description("Hashing a password or checking one against its hash")
+    @StackTrace(false)
+    public static class PasswordHash extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Algorithm")
+        public String algorithm;
+
+        @Label("Matched")
+        public boolean matched;
+    }
+
+    @Name("auth.RefreshTokenCreate")
+    @Label("Refresh Token Create")
+    @Category({CATEGORY, "Persistence"})
+    @Description("Creating a refresh token, including revoking the user's surplus tokens")
+    @StackTrace(false)
+    public static class RefreshTokenCreate extends Event {
+        @Label("Subject Hash")
+        public String subjectHash;
+
+        @Label("Active Tokens")
+        @Description("Unrevoked tokens the user held before this one")
+        public int activeTokens;
+
+        @Label("Revoked Rows")
+        public int revokedRows;
+    }
+
+    @Name("auth.KafkaSend")
+    @Label("Kafka Send")
+    @Category({CATEGORY, "Messaging"})
+    @Description("Time from handing a record to the producer until the broker acknowledged or rejected it")
+    @StackTrace(false)
+    public static class KafkaSend extends Event {
+        @Label("Topic")
+        public String topic;
+
+        @Label("Payload Size")
+        @DataAmount
+        public int payloadBytes;
+
+        @Label("Partition")
+        public int partition = -1;
+
+        @Label("Offset")
+        public long offset = -1;
+
+        @Label("Success")
+        public boolean success;
+    }
+}
@@ -1,6 +1,7 @@
 package com.midlane.project_management_tool_auth_service.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,7 @@ import java.security.PublicKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -25,6 +27,11 @@ public class JwtUtil {
     private final String privateKeyString;
     private final String publicKeyString;
 
+    // Keys are decoded once; decoding on every sign/verify dominated token handling cost
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+    private final JwtParser jwtParser;
+
     @Value("${jwt.access-token.expiration:900000}") // 15 minutes
     private long accessTokenExpiration;
 
@@ -37,6 +44,15 @@ public class JwtUtil {
         this.rsaKeyUtil = rsaKeyUtil;
         this.privateKeyString = privateKeyString;
         this.publicKeyString = publicKeyString;
+        try {
+            this.privateKey = rsaKeyUtil.decodePrivateKey(privateKeyString);
+            this.publicKey = rsaKeyUtil.decodePublicKey(publicKeyString);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to decode RSA key pair for JWT handling", e);
+        }
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(publicKey)
+                .build();
     }
 
     public String extractUsername(String token) {
@@ -64,17 +80,50 @@ public class JwtUtil {
 
     private Claims extractAllClaims(String token) {
         try {
-            PublicKey publicKey = rsaKeyUtil.decodePublicKey(publicKeyString);
-            return Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parseClaims(token);
         } catch (Exception e) {
             throw new RuntimeException("Failed to parse JWT token", e);
         }
     }
 
+    /**
+     * Verify an access token with a single parse.
+     * Returns the claims when the signature is valid, the token is an access token and it has not expired,
+     * otherwise null.
+     */
+    public Claims verifyAccessToken(String token) {
+        try {
+            Claims claims = parseClaims(token);
+            if (!"ACCESS".equals(claims.get("tokenType", String.class))) {
+                return null;
+            }
+            return claims;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Every parse goes through here so it is visible to Flight Recorder, valid or not
+    private Claims parseClaims(String token) {
+        JfrEvents.TokenVerify event = new JfrEvents.TokenVerify();
+        event.begin();
+        Claims claims = null;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            return claims;
+        } finally {
+            if (event.shouldCommit()) {
+                event.algorithm = SignatureAlgorithm.RS256.getValue();
+                event.valid = claims != null;
+                if (claims != null) {
+                    event.subjectHash = JfrEvents.subjectHash(claims.getSubject());
+                    event.tokenType = claims.get("tokenType", String.class);
+                }
+                event.commit();
+            }
+        }
+    }
+
     private Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -86,6 +135,7 @@ public class JwtUtil {
                 .collect(Collectors.joining(","));
         claims.put("role", role);
         claims.put("tokenType", "ACCESS");
+        claims.put(Claims.ID, UUID.randomUUID().toString()); // jti, used for single-token revocation
         return createToken(claims, userDetails.getUsername(), accessTokenExpiration);
     }
 
@@ -98,9 +148,10 @@ public class JwtUtil {
     private String createToken(Map<String, Object> claims, String subject, long expiration) {
         try {
             log.debug("Creating JWT token for subject: {}", subject);
-            PrivateKey privateKey = rsaKeyUtil.decodePrivateKey(privateKeyString);
-            log.debug("Successfully decoded private key for token creation");
 
+            JfrEvents.TokenSign event = new JfrEvents.TokenSign();
+            event.begin();
+            long startNanos = System.nanoTime();
             String token = Jwts.builder()
                     .setClaims(claims)
                     .setSubject(subject)
@@ -108,6 +159,14 @@ public class JwtUtil {
                     .setExpiration(new Date(System.currentTimeMillis() + expiration))
                     .signWith(privateKey, SignatureAlgorithm.RS256)
                     .compact();
+            RequestTimings.add(RequestTimings.Phase.SIGN, System.nanoTime() - startNanos);
+            if (event.shouldCommit()) {
+                event.subjectHash = JfrEvents.subjectHash(subject);
+                event.algorithm = SignatureAlgorithm.RS256.getValue();
+                event.tokenType = (String) claims.get("tokenType");
+                event.tokenLength = token.length();
+                event.commit();
+            }
 
             log.debug("Successfully created JWT token");
             return token;
@@ -0,0 +1,229 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of length-prefixed records backed by a memory-mapped file.
+ * Appends are plain memory writes, so they survive a process crash without an fsync per record.
+ * A persisted read position lets the log double as a FIFO queue that resumes where it left off.
+ * <p>
+ * Layout: a 32 byte header (magic, version, write position, read position) followed by
+ * records of the form {@code [int length][bytes]}.
+ */
+public class MappedRecordLog implements Closeable {
+
+    private static final int MAGIC = 0x4D524C47; // "MRLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final int READ_POSITION_OFFSET = 16;
+
+    private final Path path;
+    private long capacity;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int readPosition;
+    private int pendingRecords;
+
+    public MappedRecordLog(Path path, long capacity) throws IOException {
+        checkCapacity(capacity);
+        this.path = path;
+        this.capacity = capacity;
+        map();
+    }
+
+    /**
+     * Bytes a log needs to hold exactly the given records.
+     */
+    public static long requiredCapacity(List<byte[]> records) {
+        long required = HEADER_SIZE;
+        for (byte[] record : records) {
+            required += 4 + record.length;
+        }
+        return required;
+    }
+
+    private static void checkCapacity(long capacity) {
+        if (capacity <= HEADER_SIZE || capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Record log capacity must be between " + HEADER_SIZE + " bytes and 2 GB");
+        }
+    }
+
+    private void map() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            writePosition = HEADER_SIZE;
+            readPosition = HEADER_SIZE;
+            writeHeader();
+        } else {
+            writePosition = (int) buffer.getLong(WRITE_POSITION_OFFSET);
+            readPosition = (int) buffer.getLong(READ_POSITION_OFFSET);
+        }
+        pendingRecords = countRecords(readPosition, writePosition);
+    }
+
+    /**
+     * Append a record; returns false when the log has no room left for it.
+     */
+    public synchronized boolean append(byte[] record) {
+        if (writePosition + 4L + record.length > capacity) {
+            return false;
+        }
+        buffer.putInt(writePosition, record.length);
+        buffer.put(writePosition + 4, record);
+        writePosition += 4 + record.length;
+        pendingRecords++;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Visit every record that has not been consumed yet, oldest first, without consuming it.
+     */
+    public synchronized void forEach(Consumer<byte[]> consumer) {
+        int position = readPosition;
+        while (position < writePosition) {
+            byte[] record = readAt(position);
+            consumer.accept(record);
+            position += 4 + record.length;
+        }
+    }
+
+    /**
+     * Return up to {@code maxRecords} unconsumed records, oldest first, without consuming them.
+     */
+    public synchronized List<byte[]> peek(int maxRecords) {
+        List<byte[]> records = new ArrayList<>(Math.min(maxRecords, pendingRecords));
+        int position = readPosition;
+        while (position < writePosition && records.size() < maxRecords) {
+            byte[] record = readAt(position);
+            records.add(record);
+            position += 4 + record.length;
+        }
+        return records;
+    }
+
+    /**
+     * Mark the oldest {@code count} records as consumed. Once everything is consumed the space is reclaimed.
+     */
+    public synchronized void consume(int count) {
+        for (int i = 0; i < count && readPosition < writePosition; i++) {
+            readPosition += 4 + buffer.getInt(readPosition);
+            pendingRecords--;
+        }
+        if (readPosition == writePosition) {
+            readPosition = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+        }
+        writeHeader();
+    }
+
+    /**
+     * Atomically replace the log contents with the given records.
+     * The new contents are written to a sibling file that is then moved over the original,
+     * so a crash mid-way leaves either the old or the new log intact.
+     */
+    public synchronized void rewrite(List<byte[]> records) throws IOException {
+        rewrite(records, capacity);
+    }
+
+    /**
+     * Like {@link #rewrite(List)}, resizing the log to {@code newCapacity}. If the records do not fit, the log is
+     * left unchanged.
+     */
+    public synchronized void rewrite(List<byte[]> records, long newCapacity) throws IOException {
+        checkCapacity(newCapacity);
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(temp);
+        try (MappedRecordLog compacted = new MappedRecordLog(temp, newCapacity)) {
+            for (byte[] record : records) {
+                if (!compacted.append(record)) {
+                    throw new IOException("Compacted records do not fit in " + newCapacity + " bytes");
+                }
+            }
+            compacted.force();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        capacity = newCapacity;
+        map();
+    }
+
+    /**
+     * Reclaim the space of consumed records by rewriting the unconsumed ones to the front of a fresh log.
+     */
+    public synchronized void compact() throws IOException {
+        if (readPosition == HEADER_SIZE) {
+            return;
+        }
+        List<byte[]> remaining = new ArrayList<>(pendingRecords);
+        forEach(remaining::add);
+        rewrite(remaining);
+    }
+
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    public synchronized int pendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long pendingBytes() {
+        return writePosition - readPosition;
+    }
+
+    public synchronized long capacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private byte[] readAt(int position) {
+        int length = buffer.getInt(position);
+        byte[] record = new byte[length];
+        buffer.get(position + 4, record);
+        return record;
+    }
+
+    private int countRecords(int from, int to) {
+        int count = 0;
+        int position = from;
+        while (position < to) {
+            position += 4 + buffer.getInt(position);
+            count++;
+        }
+        return count;
+    }
+
+    private void writeHeader() {
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+        buffer.putLong(READ_POSITION_OFFSET, readPosition);
+    }
+}
@@ -0,0 +1,96 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer (Vyukov's bounded queue).
+ * <p>
+ * Every slot carries a sequence number: a producer claims position {@code p} with one CAS on the tail once the
+ * slot's sequence equals {@code p}, writes the element and publishes it by setting the sequence to {@code p + 1};
+ * the consumer takes it and frees the slot for the next lap by setting the sequence to {@code p + capacity}.
+ * Producers never wait for each other beyond that CAS, and a full buffer is reported instead of blocking.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // Written by the consumer only
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element; returns false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false; // The consumer has not freed this slot yet
+            }
+            // Otherwise another producer claimed the position first; retry with the new tail
+        }
+        elements[index] = element;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Hand up to {@code maxElements} elements to {@code consumer}, oldest first. Must only be called from one
+     * thread at a time.
+     *
+     * @return the number of elements drained
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<E> consumer, int maxElements) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) position & mask;
+            if (sequences.getAcquire(index) != position + 1) {
+                break; // Empty, or the producer of this slot has not published yet
+            }
+            E element = (E) elements[index];
+            elements[index] = null;
+            sequences.setRelease(index, position + elements.length);
+            position++;
+            drained++;
+            consumer.accept(element);
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Approximate number of elements waiting.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(elements.length, tail.get() - head));
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
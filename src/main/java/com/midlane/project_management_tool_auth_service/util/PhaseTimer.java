@@ -0,0 +1,58 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times the phases of the auth hot paths as {@code auth.phase} with {@code flow}, {@code phase} and
+ * {@code outcome} tags, so a latency regression can be traced to the step that caused it.
+ * Percentile histograms are switched on through {@code management.metrics.distribution.*}.
+ */
+@Component
+public class PhaseTimer {
+
+    public static final String LOGIN = "login";
+    public static final String REGISTER = "register";
+    public static final String REFRESH = "refresh";
+    public static final String JWT_FILTER = "jwt-filter";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public PhaseTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String flow, String phase, Supplier<T> work) {
+        long startNanos = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } finally {
+            timer(flow, phase, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void run(String flow, String phase, Runnable work) {
+        record(flow, phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private Timer timer(String flow, String phase, String outcome) {
+        return timers.computeIfAbsent(flow + '|' + phase + '|' + outcome, key -> Timer.builder("auth.phase")
+                .tag("flow", flow)
+                .tag("phase", phase)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+}
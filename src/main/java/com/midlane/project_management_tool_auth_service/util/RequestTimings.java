@@ -0,0 +1,118 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-request totals of the time spent in each phase, for the {@code Server-Timing} header and the access log.
+ * <p>
+ * Each thread reuses one instance, so recording costs two array updates and no allocation; {@link #add} does
+ * nothing unless the server timing filter has started a request on this thread. Phases can nest (a database
+ * call made while enqueueing mail counts towards both), so they need not add up to the total.
+ */
+public final class RequestTimings {
+
+    public enum Phase {
+        AUTH_FILTER("auth-filter"),
+        DB("db"),
+        HASH("hash"),
+        SIGN("sign"),
+        KAFKA("kafka"),
+        MAIL_ENQUEUE("mail-enqueue");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+    private long startNanos;
+    private boolean active;
+
+    private RequestTimings() {
+    }
+
+    public static RequestTimings start() {
+        RequestTimings timings = CURRENT.get();
+        Arrays.fill(timings.nanos, 0);
+        Arrays.fill(timings.counts, 0);
+        timings.startNanos = System.nanoTime();
+        timings.active = true;
+        return timings;
+    }
+
+    /**
+     * The timings of the request running on this thread, or null if none is being timed.
+     */
+    public static RequestTimings current() {
+        RequestTimings timings = CURRENT.get();
+        return timings.active ? timings : null;
+    }
+
+    public static void add(Phase phase, long durationNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.nanos[phase.ordinal()] += durationNanos;
+            timings.counts[phase.ordinal()]++;
+        }
+    }
+
+    public void stop() {
+        active = false;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * {@code Server-Timing} value, e.g. {@code db;dur=3.2;desc="2 calls", hash;dur=78.0, total;dur=84.1}.
+     * Phases that did not occur are left out.
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            int count = counts[phase.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            header.append(phase.metricName).append(";dur=").append(millis(nanos[phase.ordinal()]));
+            if (count > 1) {
+                header.append(";desc=\"").append(count).append(" calls\"");
+            }
+            header.append(", ");
+        }
+        return header.append("total;dur=").append(millis(elapsedNanos())).toString();
+    }
+
+    /**
+     * Access log fields in logfmt, e.g. {@code total_ms=84.1 db_ms=3.2 db_calls=2 hash_ms=78.0 hash_calls=1}.
+     */
+    public String toLogFields() {
+        StringBuilder fields = new StringBuilder(128).append("total_ms=").append(millis(elapsedNanos()));
+        for (Phase phase : PHASES) {
+            int count = counts[phase.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            String key = phase.metricName.replace('-', '_');
+            fields.append(' ').append(key).append("_ms=").append(millis(nanos[phase.ordinal()]))
+                    .append(' ').append(key).append("_calls=").append(count);
+        }
+        return fields.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,100 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Compact, self-contained email verification token: {@code <payload>.<signature>}, both base64url.
+ * <p>
+ * The payload is a version byte followed by varints for the user id, the user's email-last-changed time and the
+ * expiry (both epoch seconds); the signature is a truncated HMAC-SHA256 over it. A token stops verifying once it
+ * expires or once the user's email changes, so nothing needs to be stored to revoke it.
+ */
+public final class SignedVerificationToken {
+
+    private static final byte VERSION = 1;
+    private static final int SIGNATURE_BYTES = 16;
+    private static final String HMAC = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record Payload(long userId, long emailChangedAt, long expiresAt) {
+    }
+
+    private SignedVerificationToken() {
+    }
+
+    public static String issue(byte[] key, Payload payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(24);
+        out.write(VERSION);
+        writeVarLong(out, payload.userId());
+        writeVarLong(out, payload.emailChangedAt());
+        writeVarLong(out, payload.expiresAt());
+        byte[] body = out.toByteArray();
+        return ENCODER.encodeToString(body) + "." + ENCODER.encodeToString(sign(key, body));
+    }
+
+    /**
+     * Returns the payload of a well-formed token with a valid signature, or null. Expiry is left to the caller.
+     */
+    public static Payload verify(byte[] key, String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            byte[] body = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(key, body))) {
+                return null;
+            }
+            ByteBuffer in = ByteBuffer.wrap(body);
+            if (in.get() != VERSION) {
+                return null;
+            }
+            return new Payload(readVarLong(in), readVarLong(in), readVarLong(in));
+        } catch (IllegalArgumentException | java.nio.BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    public static boolean isSignedToken(String token) {
+        return token != null && token.indexOf('.') > 0;
+    }
+
+    private static byte[] sign(byte[] key, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(key, HMAC));
+            return Arrays.copyOf(mac.doFinal(body), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+        return value;
+    }
+}
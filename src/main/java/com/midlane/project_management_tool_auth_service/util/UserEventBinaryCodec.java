@@ -0,0 +1,183 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import com.midlane.project_management_tool_auth_service.dto.UserEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary encoding of {@link UserEvent} for Kafka payloads.
+ * <p>
+ * Layout (version 1): {@code [byte magic 'U'][byte version][short field mask]} followed by the present fields in
+ * declaration order. Numbers are unsigned LEB128 varints, strings are a varint length plus UTF-8 bytes, the
+ * timestamp is epoch milliseconds (UTC) and known event types are a single code byte.
+ * Consumers must check the version byte (also sent as the {@code schema-version} header) before decoding.
+ */
+public final class UserEventBinaryCodec {
+
+    public static final String CONTENT_TYPE = "application/vnd.midlane.user-event+binary";
+    public static final int SCHEMA_VERSION = 1;
+
+    private static final byte MAGIC = 'U';
+    private static final String[] EVENT_TYPES = {null, "USER_CREATED", "USER_UPDATED", "USER_DELETED"};
+
+    private static final int EVENT_TYPE = 1;
+    private static final int USER_ID = 1 << 1;
+    private static final int EMAIL = 1 << 2;
+    private static final int FIRST_NAME = 1 << 3;
+    private static final int LAST_NAME = 1 << 4;
+    private static final int ROLE = 1 << 5;
+    private static final int PROVIDER = 1 << 6;
+    private static final int TIMESTAMP = 1 << 7;
+    private static final int EVENT_SOURCE = 1 << 8;
+    private static final int EVENT_VERSION = 1 << 9;
+
+    private UserEventBinaryCodec() {
+    }
+
+    public static byte[] encode(UserEvent event) {
+        int mask = (event.getEventType() != null ? EVENT_TYPE : 0)
+                | (event.getUserId() != null ? USER_ID : 0)
+                | (event.getEmail() != null ? EMAIL : 0)
+                | (event.getFirstName() != null ? FIRST_NAME : 0)
+                | (event.getLastName() != null ? LAST_NAME : 0)
+                | (event.getRole() != null ? ROLE : 0)
+                | (event.getProvider() != null ? PROVIDER : 0)
+                | (event.getTimestamp() != null ? TIMESTAMP : 0)
+                | (event.getEventSource() != null ? EVENT_SOURCE : 0)
+                | (event.getEventVersion() != null ? EVENT_VERSION : 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(MAGIC);
+        out.write(SCHEMA_VERSION);
+        out.write(mask >>> 8);
+        out.write(mask);
+
+        if ((mask & EVENT_TYPE) != 0) {
+            int code = eventTypeCode(event.getEventType());
+            out.write(code);
+            if (code == 0) {
+                writeString(out, event.getEventType());
+            }
+        }
+        if ((mask & USER_ID) != 0) {
+            writeVarLong(out, event.getUserId());
+        }
+        if ((mask & EMAIL) != 0) {
+            writeString(out, event.getEmail());
+        }
+        if ((mask & FIRST_NAME) != 0) {
+            writeString(out, event.getFirstName());
+        }
+        if ((mask & LAST_NAME) != 0) {
+            writeString(out, event.getLastName());
+        }
+        if ((mask & ROLE) != 0) {
+            writeString(out, event.getRole());
+        }
+        if ((mask & PROVIDER) != 0) {
+            writeString(out, event.getProvider());
+        }
+        if ((mask & TIMESTAMP) != 0) {
+            writeVarLong(out, event.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        if ((mask & EVENT_SOURCE) != 0) {
+            writeString(out, event.getEventSource());
+        }
+        if ((mask & EVENT_VERSION) != 0) {
+            writeString(out, event.getEventVersion());
+        }
+        return out.toByteArray();
+    }
+
+    public static UserEvent decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        if (in.get() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary user event");
+        }
+        int version = in.get();
+        if (version != SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported user event schema version: " + version);
+        }
+        int mask = in.getShort() & 0xFFFF;
+
+        UserEvent event = new UserEvent();
+        if ((mask & EVENT_TYPE) != 0) {
+            int code = in.get();
+            event.setEventType(code == 0 ? readString(in) : EVENT_TYPES[code]);
+        }
+        if ((mask & USER_ID) != 0) {
+            event.setUserId(readVarLong(in));
+        }
+        if ((mask & EMAIL) != 0) {
+            event.setEmail(readString(in));
+        }
+        if ((mask & FIRST_NAME) != 0) {
+            event.setFirstName(readString(in));
+        }
+        if ((mask & LAST_NAME) != 0) {
+            event.setLastName(readString(in));
+        }
+        if ((mask & ROLE) != 0) {
+            event.setRole(readString(in));
+        }
+        if ((mask & PROVIDER) != 0) {
+            event.setProvider(readString(in));
+        }
+        if ((mask & TIMESTAMP) != 0) {
+            event.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(readVarLong(in)), ZoneOffset.UTC));
+        }
+        if ((mask & EVENT_SOURCE) != 0) {
+            event.setEventSource(readString(in));
+        }
+        if ((mask & EVENT_VERSION) != 0) {
+            event.setEventVersion(readString(in));
+        }
+        return event;
+    }
+
+    private static int eventTypeCode(String eventType) {
+        for (int code = 1; code < EVENT_TYPES.length; code++) {
+            if (EVENT_TYPES[code].equals(eventType)) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package com.midlane.project_management_tool_auth_service.benchmark;
+
+import com.midlane.project_management_tool_auth_service.util.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering the verification email the old way (string replacement on the whole HTML document, then
+ * encoding it for the MIME body) with writing the compiled template's fragments straight to the output.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.midlane.project_management_tool_auth_service.benchmark.EmailTemplateBenchmark}
+ * or from the IDE via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private String source;
+    private CompiledTemplate compiled;
+    private Map<String, String> params;
+    private String link;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/templates/email/verification.html")) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        source = source.substring(source.indexOf('\n') + 1).stripLeading(); // Drop the subject line
+        compiled = CompiledTemplate.compile(source);
+        link = "http://localhost:5173/verify-email?token=" + UUID.randomUUID();
+        params = Map.of("link", link);
+    }
+
+    @Benchmark
+    public byte[] stringReplace() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(source.length() + 256);
+        out.write(source.replace("{{link}}", link).getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] compiledFragments() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(compiled.staticLength() + 256);
+        compiled.writeTo(out, params);
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
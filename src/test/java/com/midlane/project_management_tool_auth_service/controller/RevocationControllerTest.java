@@ -0,0 +1,103 @@
+package com.midlane.project_management_tool_auth_service.controller;
+
+import com.midlane.project_management_tool_auth_service.dto.AuthEventDto;
+import com.midlane.project_management_tool_auth_service.exception.GlobalExceptionHandler;
+import com.midlane.project_management_tool_auth_service.service.RevocationStreamService;
+import com.midlane.project_management_tool_auth_service.service.TokenRevocationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RevocationControllerTest {
+
+    private static final String SECRET = "peer-secret";
+
+    private RevocationStreamService streamService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        when(tokenRevocationService.isPeerSecretValid(SECRET)).thenReturn(true);
+        streamService = new RevocationStreamService("test", 16, 16, 1, 60_000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new RevocationController(tokenRevocationService, streamService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.shutdown();
+    }
+
+    @Test
+    void streamOpensAsEventStreamAndDeliversEvents() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/auth/internal/revocations/stream")
+                        .header(TokenRevocationService.SNAPSHOT_SECRET_HEADER, SECRET)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        streamService.publish(AuthEventDto.builder()
+                .eventType("TOKEN_REVOKED")
+                .subject("jane@example.com")
+                .tokenId("jti-1")
+                .build());
+
+        String body = awaitContent(result, "jti-1");
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(body).contains("event:" + RevocationStreamService.REVOCATION_EVENT);
+        assertThat(body).contains("id:test.");
+        assertThat(streamService.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidSecretIsForbidden() throws Exception {
+        mockMvc.perform(get("/api/auth/internal/revocations/stream")
+                        .header(TokenRevocationService.SNAPSHOT_SECRET_HEADER, "wrong")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isForbidden())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errorCode").value("STREAM_FORBIDDEN"));
+        assertThat(streamService.subscriberCount()).isZero();
+    }
+
+    @Test
+    void subscribersBeyondTheLimitAreTurnedAway() throws Exception {
+        mockMvc.perform(get("/api/auth/internal/revocations/stream")
+                        .header(TokenRevocationService.SNAPSHOT_SECRET_HEADER, SECRET)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        mockMvc.perform(get("/api/auth/internal/revocations/stream")
+                        .header(TokenRevocationService.SNAPSHOT_SECRET_HEADER, SECRET)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errorCode").value("STREAM_UNAVAILABLE"));
+        assertThat(streamService.subscriberCount()).isEqualTo(1);
+    }
+
+    // Events are written by the subscriber's drainer thread, so the body fills in asynchronously
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+}
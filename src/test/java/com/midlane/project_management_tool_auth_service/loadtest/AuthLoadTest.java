@@ -0,0 +1,220 @@
+package com.midlane.project_management_tool_auth_service.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.midlane.project_management_tool_auth_service.util.JwtUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.midlane.project_management_tool_auth_service.loadtest.LoadTestSettings.AUTHENTICATED;
+import static com.midlane.project_management_tool_auth_service.loadtest.LoadTestSettings.LOGIN;
+import static com.midlane.project_management_tool_auth_service.loadtest.LoadTestSettings.LOGOUT;
+import static com.midlane.project_management_tool_auth_service.loadtest.LoadTestSettings.REFRESH;
+import static com.midlane.project_management_tool_auth_service.loadtest.LoadTestSettings.REGISTER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: boots the whole service on H2 (PostgreSQL mode), an embedded Kafka broker and a GreenMail
+ * SMTP server, seeds {@link LoadTestDataset}, then offers register, login, refresh, logout and an authenticated
+ * read at the configured rates (see {@link LoadTestSettings}) and writes the results with {@link LoadTestReport}.
+ * <p>
+ * Excluded from the normal build; run with {@code mvn -Ploadtest test}. Absolute numbers only mean something
+ * relative to other runs on the same machine with the same settings.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@EmbeddedKafka(partitions = 3, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+class AuthLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthLoadTest.class);
+
+    // Distinct users the authenticated scenario holds access tokens for
+    private static final int MAX_AUTHENTICATED_USERS = 1_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final GreenMail smtp = new GreenMail(ServerSetupTest.SMTP.dynamicPort())
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @DynamicPropertySource
+    static void smtpProperties(DynamicPropertyRegistry registry) {
+        smtp.start();
+        registry.add("spring.mail.port", () -> smtp.getSmtp().getPort());
+    }
+
+    @AfterAll
+    static void stopSmtp() {
+        smtp.stop();
+    }
+
+    @Test
+    void offeredLoad() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        LoadTestDataset dataset = LoadTestDataset.seed(jdbcTemplate, passwordEncoder.encode(LoadTestDataset.PASSWORD), settings);
+        log.info("Seeded {} users and {} sessions", settings.users(), dataset.sessions.size());
+
+        // Logouts revoke their session, so they get sessions of their own that refreshes never pick
+        int logoutCount = Math.min(settings.maxRequests(LOGOUT), dataset.sessions.size() / 2);
+        List<LoadTestDataset.Session> logoutSessions = dataset.sessions.subList(0, logoutCount);
+        List<LoadTestDataset.Session> liveSessions = dataset.sessions.subList(logoutCount, dataset.sessions.size());
+        List<String> logoutBearers = new ArrayList<>(logoutCount);
+        for (LoadTestDataset.Session session : logoutSessions) {
+            logoutBearers.add(accessToken(session.email()));
+        }
+        LinkedHashSet<String> authenticatedEmails = new LinkedHashSet<>();
+        for (LoadTestDataset.Session session : liveSessions) {
+            if (authenticatedEmails.size() == MAX_AUTHENTICATED_USERS) {
+                break;
+            }
+            authenticatedEmails.add(session.email());
+        }
+        List<String[]> authenticatedUsers = new ArrayList<>();
+        for (String email : authenticatedEmails) {
+            authenticatedUsers.add(new String[]{email, accessToken(email)});
+        }
+
+        String baseUrl = "http://localhost:" + port + "/api/auth";
+        SplittableRandom loginRandom = new SplittableRandom(settings.seed() + 1);
+        SplittableRandom refreshRandom = new SplittableRandom(settings.seed() + 2);
+        SplittableRandom authenticatedRandom = new SplittableRandom(settings.seed() + 3);
+
+        // Each request function is only ever called from its scenario's pacing thread
+        List<OpenLoopScenario> scenarios = List.of(
+                new OpenLoopScenario(REGISTER, settings.rate(REGISTER), i -> post(baseUrl + "/initial/register",
+                        Map.of("email", "register-" + i + "@loadtest.example", "password", LoadTestDataset.PASSWORD), null),
+                        settings.maxInFlight()),
+                new OpenLoopScenario(LOGIN, settings.rate(LOGIN), i -> post(baseUrl + "/initial/login",
+                        Map.of("email", pick(dataset.loginEmails, loginRandom), "password", LoadTestDataset.PASSWORD), null),
+                        settings.maxInFlight()),
+                new OpenLoopScenario(REFRESH, settings.rate(REFRESH), i -> liveSessions.isEmpty() ? null
+                        : post(baseUrl + "/initial/refresh",
+                        Map.of("refresh_token", pick(liveSessions, refreshRandom).refreshToken()), null),
+                        settings.maxInFlight()),
+                new OpenLoopScenario(LOGOUT, settings.rate(LOGOUT), i -> i >= logoutCount ? null
+                        : post(baseUrl + "/initial/logout",
+                        Map.of("refresh_token", logoutSessions.get((int) i).refreshToken()), logoutBearers.get((int) i)),
+                        settings.maxInFlight()),
+                new OpenLoopScenario(AUTHENTICATED, settings.rate(AUTHENTICATED), i -> {
+                    if (authenticatedUsers.isEmpty()) {
+                        return null;
+                    }
+                    String[] user = pick(authenticatedUsers, authenticatedRandom);
+                    return HttpRequest.newBuilder(URI.create(baseUrl + "/verification-status/" + user[0]))
+                            .timeout(REQUEST_TIMEOUT)
+                            .header("Authorization", "Bearer " + user[1])
+                            .GET()
+                            .build();
+                }, settings.maxInFlight()));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSeconds());
+        log.info("Offering load for {}s warmup + {}s measured: {}",
+                settings.warmupSeconds(), settings.durationSeconds(), settings.rates());
+
+        // Platform threads: pacing relies on parkNanos waking up close to the due time
+        ExecutorService pacers = Executors.newFixedThreadPool(scenarios.size());
+        for (OpenLoopScenario scenario : scenarios) {
+            pacers.submit(() -> scenario.run(client, start, measureFrom, end));
+        }
+        pacers.shutdown();
+        assertThat(pacers.awaitTermination(settings.warmupSeconds() + settings.durationSeconds() + 60L, TimeUnit.SECONDS))
+                .isTrue();
+
+        List<OpenLoopScenario.Result> results = new ArrayList<>();
+        for (OpenLoopScenario scenario : scenarios) {
+            if (!scenario.awaitCompletion(30, TimeUnit.SECONDS)) {
+                log.warn("{}: requests still outstanding after 30s are left out of the results", scenario.name());
+            }
+            results.add(scenario.result(settings.durationSeconds()));
+        }
+        results.forEach(result -> log.info(LoadTestReport.summary(result)));
+        Path report = LoadTestReport.write(settings, startedAt, results);
+        log.info("Load test report written to {}", report.toAbsolutePath());
+
+        for (OpenLoopScenario.Result result : results) {
+            if (result.targetRate() > 0) {
+                assertThat(result.completed()).as("%s requests completed", result.name()).isPositive();
+            }
+        }
+    }
+
+    private String accessToken(String email) {
+        return jwtUtil.generateAccessToken(User.withUsername(email).password("").authorities("ROLE_USER").build());
+    }
+
+    private HttpRequest post(String url, Map<String, String> body, String bearer) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return request.build();
+    }
+
+    private String json(Map<String, String> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T pick(List<T> items, SplittableRandom random) {
+        return items.get(random.nextInt(items.size()));
+    }
+}
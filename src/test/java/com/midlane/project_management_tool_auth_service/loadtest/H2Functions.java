@@ -0,0 +1,16 @@
+package com.midlane.project_management_tool_auth_service.loadtest;
+
+/**
+ * Stand-ins for the PostgreSQL functions the service calls natively, registered as H2 aliases by the
+ * load test datasource URL.
+ */
+public final class H2Functions {
+
+    private H2Functions() {
+    }
+
+    // A single instance runs against the in-memory database, so the relay lock is always free
+    public static boolean tryAdvisoryXactLock(long lockId) {
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package com.midlane.project_management_tool_auth_service.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Users and refresh-token sessions the load test runs against, inserted straight into the database.
+ * <p>
+ * Users are split in two: even-numbered users are only logged in as, odd-numbered users own the seeded sessions,
+ * so logins (which revoke a user's oldest sessions past the per-user limit) never invalidate a session another
+ * scenario is about to refresh. Everything is derived from the seed, so two runs with the same settings see the
+ * same data.
+ */
+final class LoadTestDataset {
+
+    static final String PASSWORD = "LoadTest#2024";
+
+    record Session(String email, String refreshToken) {
+    }
+
+    private static final int BATCH_SIZE = 1_000;
+
+    final List<String> loginEmails = new ArrayList<>();
+    final List<Session> sessions = new ArrayList<>();
+
+    static String email(int index) {
+        return "user-" + index + "@loadtest.example";
+    }
+
+    static LoadTestDataset seed(JdbcTemplate jdbcTemplate, String passwordHash, LoadTestSettings settings) {
+        LoadTestDataset dataset = new LoadTestDataset();
+        Random random = new Random(settings.seed());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp sessionExpiry = Timestamp.valueOf(LocalDateTime.now().plusDays(7));
+
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> tokens = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < settings.users(); i++) {
+            String email = email(i);
+            users.add(new Object[]{email, passwordHash, "User", Integer.toString(i), now, now});
+            if (i % 2 == 0) {
+                dataset.loginEmails.add(email);
+            } else {
+                for (int s = 0; s < settings.sessionsPerUser(); s++) {
+                    String token = new UUID(random.nextLong(), random.nextLong()).toString();
+                    tokens.add(new Object[]{token, email, sessionExpiry, now, "load-test"});
+                    dataset.sessions.add(new Session(email, token));
+                }
+            }
+            if (users.size() >= BATCH_SIZE) {
+                insertUsers(jdbcTemplate, users);
+            }
+            if (tokens.size() >= BATCH_SIZE) {
+                insertSessions(jdbcTemplate, tokens);
+            }
+        }
+        insertUsers(jdbcTemplate, users);
+        insertSessions(jdbcTemplate, tokens);
+
+        Collections.shuffle(dataset.sessions, random);
+        return dataset;
+    }
+
+    private static void insertUsers(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, password_hash, role, email_verified, provider, " +
+                "first_name, last_name, created_at, updated_at) VALUES (?, ?, 'USER', TRUE, 'LOCAL', ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private static void insertSessions(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO refresh_tokens (token, user_email, expires_at, created_at, revoked, " +
+                "device_info) VALUES (?, ?, ?, ?, FALSE, ?)", rows);
+        rows.clear();
+    }
+}
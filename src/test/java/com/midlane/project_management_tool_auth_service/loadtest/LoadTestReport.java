@@ -0,0 +1,138 @@
+package com.midlane.project_management_tool_auth_service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a load test run as JSON ({@code <output-dir>/<timestamp>-<commit>.json}) so runs on different commits can
+ * be diffed, and prints a one-line summary per scenario. Latencies are in milliseconds and include the time a
+ * request waited past its due time.
+ */
+final class LoadTestReport {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private LoadTestReport() {
+    }
+
+    static Path write(LoadTestSettings settings, Instant startedAt, List<OpenLoopScenario.Result> results)
+            throws IOException {
+        String commit = gitCommit();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("commit", commit);
+        report.put("dirty", gitDirty());
+        report.put("startedAt", startedAt.toString());
+        report.put("environment", Map.of(
+                "java", System.getProperty("java.version"),
+                "os", System.getProperty("os.name") + " " + System.getProperty("os.arch"),
+                "cpus", Runtime.getRuntime().availableProcessors(),
+                "maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+        report.put("settings", settings);
+
+        List<Map<String, Object>> scenarios = new ArrayList<>();
+        for (OpenLoopScenario.Result result : results) {
+            scenarios.add(toMap(result));
+        }
+        report.put("scenarios", scenarios);
+
+        Path directory = Path.of(settings.outputDir());
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_TIMESTAMP.format(startedAt) + "-" + shortCommit(commit) + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    static String summary(OpenLoopScenario.Result result) {
+        Histogram latency = result.latencyMicros();
+        return String.format(Locale.ROOT,
+                "%-13s target %7.1f/s  achieved %7.1f/s  p50 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  max %8.2f ms  " +
+                        "errors %5.2f%%  dropped %d  %s",
+                result.name(), result.targetRate(), result.throughput(),
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()),
+                result.errorRate() * 100, result.dropped(), result.outcomes());
+    }
+
+    private static Map<String, Object> toMap(OpenLoopScenario.Result result) {
+        Histogram latency = result.latencyMicros();
+        Map<String, Object> latencyMs = new LinkedHashMap<>();
+        latencyMs.put("p50", millis(latency.getValueAtPercentile(50)));
+        latencyMs.put("p90", millis(latency.getValueAtPercentile(90)));
+        latencyMs.put("p99", millis(latency.getValueAtPercentile(99)));
+        latencyMs.put("p99.9", millis(latency.getValueAtPercentile(99.9)));
+        latencyMs.put("max", millis(latency.getMaxValue()));
+        latencyMs.put("mean", latency.getTotalCount() == 0 ? 0 : latency.getMean() / 1000.0);
+
+        Map<String, Object> scenario = new LinkedHashMap<>();
+        scenario.put("name", result.name());
+        scenario.put("targetRate", result.targetRate());
+        scenario.put("throughput", result.throughput());
+        scenario.put("sent", result.sent());
+        scenario.put("completed", result.completed());
+        scenario.put("errors", result.errors());
+        scenario.put("errorRate", result.errorRate());
+        scenario.put("dropped", result.dropped());
+        scenario.put("skipped", result.skipped());
+        scenario.put("latencyMs", latencyMs);
+        scenario.put("outcomes", result.outcomes());
+        scenario.put("errorSamples", result.errorSamples());
+        return scenario;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String shortCommit(String commit) {
+        return commit.length() > 12 ? commit.substring(0, 12) : commit;
+    }
+
+    // GIT_COMMIT wins so CI can report the commit under test even from a detached or shallow checkout
+    private static String gitCommit() {
+        String fromEnvironment = System.getenv("GIT_COMMIT");
+        if (fromEnvironment != null && !fromEnvironment.isBlank()) {
+            return fromEnvironment;
+        }
+        String head = git("rev-parse", "HEAD");
+        return head == null || head.isEmpty() ? "unknown" : head;
+    }
+
+    private static Boolean gitDirty() {
+        String status = git("status", "--porcelain", "--untracked-files=no");
+        return status == null ? null : !status.isEmpty();
+    }
+
+    private static String git(String... args) {
+        List<String> command = new ArrayList<>(List.of("git"));
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (!process.waitFor(10, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                return null;
+            }
+            return output;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
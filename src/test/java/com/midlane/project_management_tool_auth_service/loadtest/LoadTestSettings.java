@@ -0,0 +1,60 @@
+package com.midlane.project_management_tool_auth_service.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties (Maven passes {@code -D} flags through).
+ * Rates are requests per second and are offered regardless of how fast the service answers.
+ */
+record LoadTestSettings(int users,
+                        int sessionsPerUser,
+                        int warmupSeconds,
+                        int durationSeconds,
+                        long seed,
+                        int maxInFlight,
+                        Map<String, Double> rates,
+                        String outputDir) {
+
+    static final String REGISTER = "register";
+    static final String LOGIN = "login";
+    static final String REFRESH = "refresh";
+    static final String LOGOUT = "logout";
+    static final String AUTHENTICATED = "authenticated";
+
+    static LoadTestSettings fromSystemProperties() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put(REGISTER, doubleProperty("loadtest.rate.register", 5));
+        rates.put(LOGIN, doubleProperty("loadtest.rate.login", 20));
+        rates.put(REFRESH, doubleProperty("loadtest.rate.refresh", 200));
+        rates.put(LOGOUT, doubleProperty("loadtest.rate.logout", 10));
+        rates.put(AUTHENTICATED, doubleProperty("loadtest.rate.authenticated", 500));
+        return new LoadTestSettings(
+                intProperty("loadtest.users", 10_000),
+                intProperty("loadtest.sessions-per-user", 2),
+                intProperty("loadtest.warmup-seconds", 10),
+                intProperty("loadtest.duration-seconds", 60),
+                Long.getLong("loadtest.seed", 42L),
+                intProperty("loadtest.max-in-flight", 2_000),
+                rates,
+                System.getProperty("loadtest.output-dir", "target/loadtest"));
+    }
+
+    double rate(String scenario) {
+        return rates.getOrDefault(scenario, 0.0);
+    }
+
+    // Upper bound on the requests a scenario can issue, warmup included
+    int maxRequests(String scenario) {
+        return (int) Math.ceil(rate(scenario) * (warmupSeconds + durationSeconds));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,177 @@
+package com.midlane.project_management_tool_auth_service.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Offers one kind of request at a fixed arrival rate (an open workload model): request {@code i} is due at
+ * {@code start + i / rate} whether or not earlier requests have completed, and its latency is measured from that
+ * due time rather than from when it was actually sent. A service that falls behind therefore shows up as growing
+ * latency instead of silently lowering the offered load (coordinated omission).
+ * <p>
+ * Requests due during the warmup are sent but not recorded. When {@code maxInFlight} requests are outstanding,
+ * further arrivals are counted as dropped instead of piling up in the client.
+ */
+final class OpenLoopScenario {
+
+    record Result(String name,
+                  double targetRate,
+                  long sent,
+                  long completed,
+                  long errors,
+                  long dropped,
+                  long skipped,
+                  double measuredSeconds,
+                  Histogram latencyMicros,
+                  Map<String, Long> outcomes,
+                  Map<String, String> errorSamples) {
+
+        double throughput() {
+            return (completed - errors) / measuredSeconds;
+        }
+
+        double errorRate() {
+            return completed == 0 ? 0 : (double) errors / completed;
+        }
+    }
+
+    private static final String TIMEOUT = "timeout";
+    private static final String IO_ERROR = "io-error";
+    private static final int MAX_SAMPLE_LENGTH = 300;
+
+    private final String name;
+    private final double ratePerSecond;
+    private final LongFunction<HttpRequest> requests;
+    private final int maxInFlight;
+
+    private final Recorder recorder = new Recorder(3);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    // First error body (or exception) per outcome, so a failing run says why
+    private final Map<String, String> errorSamples = new ConcurrentHashMap<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * @param requests builds request number {@code i}; returns null when the dataset has nothing left for it
+     */
+    OpenLoopScenario(String name, double ratePerSecond, LongFunction<HttpRequest> requests, int maxInFlight) {
+        this.name = name;
+        this.ratePerSecond = ratePerSecond;
+        this.requests = requests;
+        this.maxInFlight = maxInFlight;
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * Issue requests due in {@code [startNanos, endNanos)} on the calling thread; requests due before
+     * {@code measureFromNanos} are not recorded.
+     */
+    void run(HttpClient client, long startNanos, long measureFromNanos, long endNanos) {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        for (long i = 0; ; i++) {
+            long due = startNanos + (long) (i * intervalNanos);
+            if (due >= endNanos) {
+                return;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFromNanos;
+
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            HttpRequest request = requests.apply(i);
+            if (request == null) {
+                if (measured) {
+                    skipped.increment();
+                }
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            if (measured) {
+                sent.increment();
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        inFlight.decrementAndGet();
+                        if (measured) {
+                            record(due, response, failure);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Wait for outstanding requests to finish; returns false if some were still running at the timeout.
+     */
+    boolean awaitCompletion(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return true;
+    }
+
+    Result result(double measuredSeconds) {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return new Result(name, ratePerSecond, sent.sum(), completed.sum(), errors.sum(), dropped.sum(),
+                skipped.sum(), measuredSeconds, recorder.getIntervalHistogram(), counts, new TreeMap<>(errorSamples));
+    }
+
+    private void record(long due, HttpResponse<String> response, Throwable failure) {
+        recorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due)));
+        completed.increment();
+        String outcome;
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            outcome = cause instanceof HttpTimeoutException ? TIMEOUT : IO_ERROR;
+            errors.increment();
+            errorSamples.putIfAbsent(outcome, String.valueOf(cause));
+        } else {
+            outcome = Integer.toString(response.statusCode());
+            if (response.statusCode() >= 400) {
+                errors.increment();
+                errorSamples.putIfAbsent(outcome, truncate(response.body()));
+            }
+        }
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private static String truncate(String body) {
+        return body == null || body.length() <= MAX_SAMPLE_LENGTH ? body : body.substring(0, MAX_SAMPLE_LENGTH);
+    }
+}
@@ -0,0 +1,120 @@
+package com.midlane.project_management_tool_auth_service.repository;
+
+import com.midlane.project_management_tool_auth_service.dto.VerificationStatusView;
+import com.midlane.project_management_tool_auth_service.dto.VerificationTokenView;
+import com.midlane.project_management_tool_auth_service.model.EmailVerification;
+import com.midlane.project_management_tool_auth_service.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements the email verification flows cost, so a lazy association or an extra
+ * lookup creeping back in fails the build.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:verification;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EmailVerificationRepositoryTest {
+
+    @Autowired
+    private EmailVerificationRepository emailVerificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("jane@example.com");
+        user.setFirstName("Jane");
+        user.setLastName("Doe");
+        user = userRepository.save(user);
+
+        EmailVerification verification = new EmailVerification();
+        verification.setUser(user);
+        verification.setVerificationToken("token-1");
+        verification.setTokenExpiry(LocalDateTime.now().plusHours(24));
+        emailVerificationRepository.save(verification);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void verifyingATokenCostsOneReadAndTwoUpdates() {
+        LocalDateTime now = LocalDateTime.now();
+
+        VerificationTokenView view = emailVerificationRepository.findViewByToken("token-1").orElseThrow();
+        assertThat(emailVerificationRepository.markVerified(view.verificationId(), now)).isEqualTo(1);
+        assertThat(emailVerificationRepository.markUserVerified(view.userId(), now)).isEqualTo(1);
+
+        assertThat(view.email()).isEqualTo("jane@example.com");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        assertThat(userRepository.findById(user.getUserId()).orElseThrow().getEmailVerified()).isTrue();
+    }
+
+    @Test
+    void secondVerificationOfTheSameTokenIsRejectedByTheUpdate() {
+        LocalDateTime now = LocalDateTime.now();
+        VerificationTokenView view = emailVerificationRepository.findViewByToken("token-1").orElseThrow();
+
+        assertThat(emailVerificationRepository.markVerified(view.verificationId(), now)).isEqualTo(1);
+        assertThat(emailVerificationRepository.markVerified(view.verificationId(), now)).isZero();
+    }
+
+    @Test
+    void expiredTokenIsNotMarkedVerified() {
+        VerificationTokenView view = emailVerificationRepository.findViewByToken("token-1").orElseThrow();
+
+        assertThat(emailVerificationRepository.markVerified(view.verificationId(), LocalDateTime.now().plusDays(2)))
+                .isZero();
+    }
+
+    @Test
+    void statusIsReadInOneQuery() {
+        VerificationStatusView status = emailVerificationRepository
+                .findStatusByEmail("jane@example.com", LocalDateTime.now())
+                .orElseThrow();
+
+        assertThat(status.emailVerified()).isFalse();
+        assertThat(status.pendingTokens()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void statusOfUnknownEmailIsEmpty() {
+        assertThat(emailVerificationRepository.findStatusByEmail("nobody@example.com", LocalDateTime.now()))
+                .isEmpty();
+    }
+}
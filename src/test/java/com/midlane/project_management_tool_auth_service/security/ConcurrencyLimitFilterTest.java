@@ -0,0 +1,122 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEnvironment environment = new MockEnvironment();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void passwordHashingIsCappedAtItsShareOfTheTotalBudget() throws Exception {
+        // Total limit 10 with the default 0.5 share: 5 logins, although the login limiter itself would admit 8
+        ConcurrencyLimitFilter filter = filter(10);
+        holdInFlight(filter, "/api/auth/initial/login", 5);
+        awaitInflight("password-hashing", 5);
+
+        MockHttpServletResponse rejected = perform(filter, "/api/auth/initial/login", (request, response) -> { });
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("OVERLOADED");
+        assertThat(meterRegistry.counter("http.concurrency.rejected", "class", "password-hashing").count())
+                .isEqualTo(1);
+        // The rejected login gave its limiter slot back
+        assertThat(inflight("password-hashing")).isEqualTo(5);
+
+        // Refresh may use the whole budget, so it still gets through the login storm
+        assertThat(perform(filter, "/api/auth/initial/refresh", (request, response) -> { }).getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void requestsOverTheClassLimitAreRejected() throws Exception {
+        environment.setProperty("app.concurrency.db-write.initial-limit", "2");
+        ConcurrencyLimitFilter filter = filter(100);
+        holdInFlight(filter, "/api/auth/initial/logout", 2);
+        awaitInflight("db-write", 2);
+
+        assertThat(perform(filter, "/api/auth/verify-email", (request, response) -> { }).getStatus())
+                .isEqualTo(503);
+        assertThat(perform(filter, "/api/auth/initial/public-key", (request, response) -> { }).getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void unclassifiedPathsAreNotLimited() throws Exception {
+        environment.setProperty("app.concurrency.db-write.initial-limit", "1");
+        ConcurrencyLimitFilter filter = filter(1);
+        holdInFlight(filter, "/api/auth/initial/logout", 1);
+        awaitInflight("db-write", 1);
+
+        assertThat(perform(filter, "/actuator/health", (request, response) -> { }).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "/api/auth/internal/revocations/stream", (request, response) -> { }).getStatus())
+                .isEqualTo(200);
+    }
+
+    private ConcurrencyLimitFilter filter(int totalLimit) {
+        return new ConcurrencyLimitFilter(new ObjectMapper(), meterRegistry, environment, true, totalLimit);
+    }
+
+    // Start requests whose handling blocks until the test ends
+    private void holdInFlight(ConcurrencyLimitFilter filter, String path, int count) {
+        for (int i = 0; i < count; i++) {
+            executor.execute(() -> {
+                try {
+                    perform(filter, path, (request, response) -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    private void awaitInflight(String endpointClass, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inflight(endpointClass) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(inflight(endpointClass)).isEqualTo(expected);
+    }
+
+    private int inflight(String endpointClass) {
+        return (int) meterRegistry.get("http.concurrency.inflight").tag("class", endpointClass).gauge().value();
+    }
+
+    private static MockHttpServletResponse perform(ConcurrencyLimitFilter filter, String path, FilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,144 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateLimitBackendTest {
+
+    private final InMemoryRateLimitBackend backend = new InMemoryRateLimitBackend(16, 10_000);
+
+    @Test
+    void bucketAllowsBurstThenRefills() {
+        long now = 1_000_000;
+        for (int i = 0; i < 3; i++) {
+            assertThat(backend.tryConsume("login:ip:1.2.3.4", 3, 1.0, now)).isZero();
+        }
+        assertThat(backend.tryConsume("login:ip:1.2.3.4", 3, 1.0, now)).isEqualTo(1000);
+        assertThat(backend.tryConsume("login:ip:1.2.3.4", 3, 1.0, now + 1000)).isZero();
+        assertThat(backend.tryConsume("login:ip:5.6.7.8", 3, 1.0, now)).isZero();
+    }
+
+    @Test
+    void bucketNeverHandsOutMoreThanCapacityUnderContention() throws InterruptedException {
+        int threads = 8;
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (backend.tryConsume("shared", 500, 0, 0) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(granted.get()).isEqualTo(500);
+    }
+
+    @Test
+    void failuresSlideOutOfTheWindow() {
+        long window = 60_000;
+        assertThat(backend.recordFailure("fail:a", window, 0)).isEqualTo(1);
+        assertThat(backend.recordFailure("fail:a", window, 10_000)).isEqualTo(2);
+        // Halfway through the next window, half of the previous window's failures still count
+        assertThat(backend.recordFailure("fail:a", window, 90_000)).isEqualTo(2);
+        assertThat(backend.recordFailure("fail:a", window, 300_000)).isEqualTo(1);
+
+        backend.resetFailures("fail:a");
+        assertThat(backend.recordFailure("fail:a", window, 300_001)).isEqualTo(1);
+    }
+
+    @Test
+    void lockExpiresAndCanBeLiftedEarly() {
+        backend.lock("lock:a", 5_000);
+        assertThat(backend.lockedUntil("lock:a", 1_000)).isEqualTo(5_000);
+        assertThat(backend.lockedUntil("lock:a", 5_000)).isZero();
+
+        backend.lock("lock:b", 5_000);
+        assertThat(backend.unlock("lock:b")).isTrue();
+        assertThat(backend.lockedUntil("lock:b", 1_000)).isZero();
+        assertThat(backend.unlock("lock:b")).isFalse();
+    }
+
+    @Test
+    void evictIdleDropsOnlyStateThatNoLongerMatters() {
+        backend.tryConsume("full-again", 2, 1.0, 0);
+        backend.tryConsume("still-draining", 100, 0.001, 0);
+        backend.recordFailure("old-failure", 1_000, 0);
+        backend.lock("expired-lock", 500);
+
+        backend.evictIdle(10_000);
+
+        assertThat(backend.size()).isEqualTo(1);
+        assertThat(backend.tryConsume("still-draining", 100, 0.001, 10_000)).isZero();
+    }
+
+    @Test
+    void floodOfNewKeysIsSweptOffTheRequestThread() throws InterruptedException {
+        InMemoryRateLimitBackend small = new InMemoryRateLimitBackend(4, 10);
+        for (int i = 0; i < 50; i++) {
+            small.tryConsume("login:ip:10.0.0." + i, 5, 1.0, 0);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (small.size() > 10 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(small.size()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void evictIdleTrimsBucketsToTheBoundButKeepsLiveFailuresAndLockouts() {
+        // Fixed clock, so the sweep started by the flood sees the same time as the test
+        InMemoryRateLimitBackend small = new InMemoryRateLimitBackend(4, 5, () -> 0L);
+        small.lock("lock:a", 10_000);
+        for (int i = 0; i < 20; i++) {
+            // Never refills, so never idle
+            small.tryConsume("bucket:" + i, 10, 0, 0);
+        }
+        for (int i = 0; i < 5; i++) {
+            small.recordFailure("fail:" + i, 1_000_000, 0);
+        }
+
+        small.evictIdle(0);
+
+        assertThat(small.size()).isEqualTo(11);
+        assertThat(small.lockedUntil("lock:a", 0)).isEqualTo(10_000);
+        assertThat(small.recordFailure("fail:0", 1_000_000, 0)).isEqualTo(2);
+    }
+
+    @Test
+    void sprayOfNewKeysCannotEvictALiveFailureWindow() {
+        InMemoryRateLimitBackend small = new InMemoryRateLimitBackend(4, 5, () -> 0L);
+        small.recordFailure("fail:victim", 60_000, 0);
+        small.recordFailure("fail:victim", 60_000, 0);
+
+        for (int i = 0; i < 100; i++) {
+            int counted = small.recordFailure("fail:junk-" + i, 60_000, 0);
+            assertThat(counted).isEqualTo(i < 4 ? 1 : RateLimitBackend.UNTRACKED);
+        }
+        small.evictIdle(0);
+
+        assertThat(small.recordFailure("fail:victim", 60_000, 1_000)).isEqualTo(3);
+
+        // Once the junk has gone idle it makes room for new keys again
+        small.evictIdle(120_000);
+        assertThat(small.recordFailure("fail:new", 60_000, 120_000)).isEqualTo(1);
+    }
+}
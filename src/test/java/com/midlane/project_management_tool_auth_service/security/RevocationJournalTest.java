@@ -0,0 +1,95 @@
+package com.midlane.project_management_tool_auth_service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationJournalTest {
+
+    // Header plus ten 20-byte records ("jti-000" keys)
+    private static final long CAPACITY = 232;
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RevocationJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void compactionGrowsTheJournalWhenLiveEntriesFillMoreThanHalf() {
+        journal = open(1_024);
+
+        assertThat(journal.compact(entries(8))).isTrue();
+
+        assertThat(capacity()).isEqualTo(2 * CAPACITY);
+        assertThat(journal.isOverflowing()).isFalse();
+        assertThat(replay()).isEqualTo(entries(8));
+        assertThat(journal.append(entry(8))).isTrue();
+    }
+
+    @Test
+    void entriesBeyondTheMaximumLeaveTheJournalUntouchedAndOverflowing() {
+        journal = open(256);
+        assertThat(journal.compact(entries(3))).isTrue();
+
+        assertThat(journal.compact(entries(20))).isFalse();
+
+        assertThat(journal.isOverflowing()).isTrue();
+        assertThat(meterRegistry.counter("revocation.journal.compaction.failures").count()).isEqualTo(1);
+        assertThat(replay()).isEqualTo(entries(3));
+
+        // Once live state shrinks again, the next compaction clears the overflow
+        assertThat(journal.compact(entries(2))).isTrue();
+        assertThat(journal.isOverflowing()).isFalse();
+    }
+
+    @Test
+    void journalThatCannotGrowEnoughForHeadroomIsOverflowing() {
+        journal = open(256);
+
+        assertThat(journal.compact(entries(10))).isTrue();
+
+        assertThat(capacity()).isEqualTo(256);
+        assertThat(journal.isOverflowing()).isTrue();
+        assertThat(replay()).isEqualTo(entries(10));
+    }
+
+    private RevocationJournal open(long maxCapacity) {
+        return new RevocationJournal(true, tempDir.resolve("revocations.journal").toString(), CAPACITY, maxCapacity,
+                meterRegistry);
+    }
+
+    private double capacity() {
+        return meterRegistry.get("revocation.journal.capacity").gauge().value();
+    }
+
+    private List<RevocationJournal.Entry> replay() {
+        List<RevocationJournal.Entry> replayed = new ArrayList<>();
+        journal.replay(replayed::add);
+        return replayed;
+    }
+
+    private static List<RevocationJournal.Entry> entries(int count) {
+        List<RevocationJournal.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(entry(i));
+        }
+        return entries;
+    }
+
+    private static RevocationJournal.Entry entry(int i) {
+        return new RevocationJournal.Entry(RevocationJournal.TOKEN, String.format("jti-%03d", i), 4_000_000_000L);
+    }
+}
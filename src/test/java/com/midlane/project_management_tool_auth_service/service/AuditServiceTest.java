@@ -0,0 +1,141 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midlane.project_management_tool_auth_service.model.ActionType;
+import com.midlane.project_management_tool_auth_service.model.AuditEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AuditServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<AuditEvent> written = new CopyOnWriteArrayList<>();
+    private AuditService auditService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (auditService != null) {
+            auditService.stopWriter();
+        }
+    }
+
+    @Test
+    void eventsRecordedInATransactionAreQueuedOnlyAfterCommit() {
+        auditService = newAuditService(16, "drop", 60_000);
+        TransactionSynchronizationManager.initSynchronization();
+
+        auditService.record(ActionType.ACCOUNT_LOCKED, "committed@example.com", null);
+        auditService.record(ActionType.ACCOUNT_LOCKED, "rolled-back@example.com", null);
+        assertThat(count("audit.events.recorded")).isZero();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.get(0).afterCommit();
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(count("audit.events.recorded")).isEqualTo(1);
+        assertThat(meterRegistry.get("audit.buffer.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void fullBufferDropsUnderTheDropPolicy() {
+        auditService = newAuditService(2, "drop", 60_000); // Writer not started, nothing drains
+
+        for (int i = 0; i < 5; i++) {
+            auditService.record(ActionType.ACCOUNT_LOCKED, "user" + i + "@example.com", null);
+        }
+
+        assertThat(count("audit.events.recorded")).isEqualTo(2);
+        assertThat(count("audit.events.dropped")).isEqualTo(3);
+    }
+
+    @Test
+    void fullBufferMakesTheCallerWaitForTheWriterUnderTheBlockPolicy() throws InterruptedException {
+        auditService = newAuditService(2, "block", 60_000);
+        ReflectionTestUtils.setField(auditService, "blockTimeoutMs", 5_000L);
+        auditService.startWriter();
+        TimeUnit.MILLISECONDS.sleep(100); // Let the writer park for its (long) flush interval
+
+        for (int i = 0; i < 10; i++) {
+            auditService.record(ActionType.ACCOUNT_LOCKED, "user" + i + "@example.com", null);
+        }
+
+        assertThat(count("audit.events.recorded")).isEqualTo(10);
+        assertThat(count("audit.events.dropped")).isZero();
+    }
+
+    @Test
+    void fullBufferGivesUpAfterTheBlockTimeout() {
+        auditService = newAuditService(2, "block", 60_000);
+        ReflectionTestUtils.setField(auditService, "blockTimeoutMs", 20L);
+
+        for (int i = 0; i < 3; i++) {
+            auditService.record(ActionType.ACCOUNT_LOCKED, "user" + i + "@example.com", null);
+        }
+
+        assertThat(count("audit.events.recorded")).isEqualTo(2);
+        assertThat(count("audit.events.dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void shutdownDrainsEverythingAlreadyRecorded() throws InterruptedException {
+        auditService = newAuditService(1024, "drop", 60_000);
+        auditService.startWriter();
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        for (int i = 0; i < 700; i++) {
+            auditService.record(ActionType.ACCOUNT_LOCKED, "user" + i + "@example.com", "detail " + i);
+        }
+        assertThat(written).isEmpty(); // Still waiting for the flush interval
+
+        auditService.stopWriter();
+
+        assertThat(written).hasSize(700);
+        assertThat(written.get(0).getUserEmail()).isEqualTo("user0@example.com");
+        assertThat(written.get(699).getDetails()).isEqualTo("detail 699");
+        assertThat(count("audit.events.written")).isEqualTo(700);
+    }
+
+    private AuditService newAuditService(int capacity, String backpressure, long flushIntervalMs) {
+        doAnswer(invocation -> {
+            Collection<AuditEvent> batch = invocation.getArgument(1);
+            written.addAll(new ArrayList<>(batch));
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        AuditService service = new AuditService(jdbcTemplate, mock(KafkaProducerService.class), new ObjectMapper(),
+                meterRegistry, capacity);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "sink", "jdbc");
+        ReflectionTestUtils.setField(service, "backpressure", backpressure);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", flushIntervalMs);
+        return service;
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+}
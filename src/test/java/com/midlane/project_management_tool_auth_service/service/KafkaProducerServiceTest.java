@@ -0,0 +1,124 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaProducerServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Every record handed to the template, with the future the test completes for it
+    private final List<ProducerRecord<String, byte[]>> sent = new ArrayList<>();
+    private final List<CompletableFuture<SendResult<String, byte[]>>> pending = new ArrayList<>();
+    private boolean acknowledgeImmediately;
+    private KafkaProducerService producer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> record = invocation.getArgument(0);
+            CompletableFuture<SendResult<String, byte[]>> future = new CompletableFuture<>();
+            sent.add(record);
+            pending.add(future);
+            if (acknowledgeImmediately) {
+                acknowledge(future, record);
+            }
+            return future;
+        });
+        producer = new KafkaProducerService(kafkaTemplate, meterRegistry,
+                tempDir.resolve("spool.log").toString(), 1 << 20);
+        ReflectionTestUtils.setField(producer, "replayBatchSize", 100);
+        ReflectionTestUtils.setField(producer, "sendTimeoutMs", 1_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        producer.close();
+    }
+
+    @Test
+    void sendsAfterAFailureAreSpooledBehindIt() {
+        producer.sendMessageWithKey("auth.events", "jane", "a");
+        pending.get(0).completeExceptionally(new IllegalStateException("broker down"));
+
+        producer.sendMessageWithKey("auth.events", "jane", "b");
+        producer.sendMessageWithKey("user.events", "john", "x");
+
+        // Only the topic that failed is spooled
+        assertThat(messages()).containsExactly("a", "x");
+        assertThat(spoolPending()).isEqualTo(2);
+
+        replayAndExpect("a", "b");
+        producer.sendMessageWithKey("auth.events", "jane", "c");
+        assertThat(messages()).containsExactly("a", "x", "a", "b", "c");
+        assertThat(spoolPending()).isZero();
+    }
+
+    @Test
+    void inFlightSendsAndLaterArrivalsKeepTheirOrderBehindAFailure() {
+        producer.sendMessageWithKey("auth.events", "jane", "a");
+        producer.sendMessageWithKey("auth.events", "jane", "b");
+        pending.get(0).completeExceptionally(new IllegalStateException("broker down"));
+
+        // Arrives while b is still in flight, so it must wait for b
+        producer.sendMessageWithKey("auth.events", "jane", "c");
+        assertThat(spoolPending()).isEqualTo(1);
+
+        // b made it to the broker after a failed; it is spooled again so a replayed a cannot overwrite it
+        acknowledge(pending.get(1), sent.get(1));
+        assertThat(spoolPending()).isEqualTo(3);
+
+        replayAndExpect("a", "b", "c");
+    }
+
+    private void replayAndExpect(String... messages) {
+        int before = sent.size();
+        acknowledgeImmediately = true;
+        producer.replaySpool();
+        acknowledgeImmediately = false;
+        assertThat(messages().subList(before, sent.size())).containsExactly(messages);
+    }
+
+    private List<String> messages() {
+        List<String> messages = new ArrayList<>();
+        for (ProducerRecord<String, byte[]> record : sent) {
+            messages.add(new String(record.value(), StandardCharsets.UTF_8));
+        }
+        return messages;
+    }
+
+    private double spoolPending() {
+        return meterRegistry.get("kafka.spool.pending").gauge().value();
+    }
+
+    private static void acknowledge(CompletableFuture<SendResult<String, byte[]>> future,
+                                    ProducerRecord<String, byte[]> record) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), 0, 0, 0, 0, 0);
+        future.complete(new SendResult<>(record, metadata));
+    }
+}
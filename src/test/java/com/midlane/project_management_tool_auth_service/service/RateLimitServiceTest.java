@@ -0,0 +1,139 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.midlane.project_management_tool_auth_service.exception.ErrorResponse;
+import com.midlane.project_management_tool_auth_service.exception.GlobalExceptionHandler;
+import com.midlane.project_management_tool_auth_service.exception.RateLimitExceededException;
+import com.midlane.project_management_tool_auth_service.model.ActionType;
+import com.midlane.project_management_tool_auth_service.security.InMemoryRateLimitBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RateLimitServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditService auditService = mock(AuditService.class);
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitService = new RateLimitService(new InMemoryRateLimitBackend(16, 10_000), meterRegistry, auditService);
+        ReflectionTestUtils.setField(rateLimitService, "enabled", true);
+        ReflectionTestUtils.setField(rateLimitService, "loginIpCapacity", 100);
+        ReflectionTestUtils.setField(rateLimitService, "loginIpRefillPerMinute", 0);
+        ReflectionTestUtils.setField(rateLimitService, "loginEmailCapacity", 100);
+        ReflectionTestUtils.setField(rateLimitService, "loginEmailRefillPerMinute", 0);
+        ReflectionTestUtils.setField(rateLimitService, "registerIpCapacity", 2);
+        ReflectionTestUtils.setField(rateLimitService, "registerIpRefillPerMinute", 0);
+        ReflectionTestUtils.setField(rateLimitService, "lockoutMaxFailures", 3);
+        ReflectionTestUtils.setField(rateLimitService, "lockoutWindowMs", 60_000L);
+        ReflectionTestUtils.setField(rateLimitService, "lockoutDurationMs", 60_000L);
+    }
+
+    @Test
+    void repeatedFailuresLockTheAccountWith423() {
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.checkLogin("10.0.0.1", "Jane@Example.com");
+            rateLimitService.loginFailed("10.0.0.1", "Jane@Example.com");
+        }
+
+        RateLimitExceededException locked = catchThrowableOfType(RateLimitExceededException.class,
+                () -> rateLimitService.checkLogin("10.0.0.2", "jane@example.com"));
+        assertThat(locked.getErrorCode()).isEqualTo(RateLimitExceededException.ACCOUNT_LOCKED);
+        assertThat(locked.getRetryAfterSeconds()).isBetween(1L, 60L);
+
+        ResponseEntity<ErrorResponse> response = GlobalExceptionHandler.rateLimited(locked);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.LOCKED);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo(String.valueOf(locked.getRetryAfterSeconds()));
+        assertThat(meterRegistry.counter("rate.limit.lockouts").count()).isEqualTo(1);
+        verify(auditService).record(eq(ActionType.ACCOUNT_LOCKED), eq("jane@example.com"), anyString());
+
+        // Other accounts from the same address are unaffected
+        rateLimitService.checkLogin("10.0.0.2", "john@example.com");
+    }
+
+    @Test
+    void failureThatCannotBeCountedLocksTheAccount() {
+        RateLimitService small = new RateLimitService(new InMemoryRateLimitBackend(4, 2, () -> 0L),
+                meterRegistry, auditService);
+        ReflectionTestUtils.setField(small, "enabled", true);
+        ReflectionTestUtils.setField(small, "lockoutMaxFailures", 3);
+        ReflectionTestUtils.setField(small, "lockoutWindowMs", 60_000L);
+        ReflectionTestUtils.setField(small, "lockoutDurationMs", 60_000L);
+        small.loginFailed("10.0.0.1", "junk-1@example.com");
+        small.loginFailed("10.0.0.1", "junk-2@example.com");
+
+        small.loginFailed("10.0.0.1", "jane@example.com");
+
+        assertThat(meterRegistry.counter("rate.limit.failures.untracked").count()).isEqualTo(1);
+        assertThatThrownBy(() -> small.checkLogin("10.0.0.1", "jane@example.com"))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void successfulLoginResetsTheFailureCount() {
+        rateLimitService.loginFailed("10.0.0.1", "jane@example.com");
+        rateLimitService.loginFailed("10.0.0.1", "jane@example.com");
+        rateLimitService.loginSucceeded("jane@example.com");
+        rateLimitService.loginFailed("10.0.0.1", "jane@example.com");
+        rateLimitService.loginFailed("10.0.0.1", "jane@example.com");
+
+        rateLimitService.checkLogin("10.0.0.1", "jane@example.com");
+    }
+
+    @Test
+    void unlockLiftsTheLockout() {
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.loginFailed("10.0.0.1", "jane@example.com");
+        }
+        assertThat(rateLimitService.unlockAccount("jane@example.com")).isTrue();
+        rateLimitService.checkLogin("10.0.0.1", "jane@example.com");
+
+        assertThat(rateLimitService.unlockAccount("jane@example.com")).isFalse();
+        verify(auditService).record(eq(ActionType.ACCOUNT_UNLOCKED), eq("jane@example.com"), anyString());
+    }
+
+    @Test
+    void exhaustedBucketIsRateLimitedWith429() {
+        rateLimitService.checkRegistration("10.0.0.1");
+        rateLimitService.checkRegistration("10.0.0.1");
+
+        RateLimitExceededException limited = catchThrowableOfType(RateLimitExceededException.class,
+                () -> rateLimitService.checkRegistration("10.0.0.1"));
+        assertThat(limited.getErrorCode()).isEqualTo(RateLimitExceededException.RATE_LIMITED);
+        assertThat(GlobalExceptionHandler.rateLimited(limited).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(meterRegistry.counter("rate.limit.rejected", "endpoint", "register", "scope", "ip").count())
+                .isEqualTo(1);
+
+        rateLimitService.checkRegistration("10.0.0.2");
+    }
+
+    @Test
+    void disabledServiceLetsEverythingThrough() {
+        ReflectionTestUtils.setField(rateLimitService, "enabled", false);
+        for (int i = 0; i < 10; i++) {
+            rateLimitService.checkRegistration("10.0.0.1");
+            rateLimitService.loginFailed("10.0.0.1", "jane@example.com");
+        }
+        rateLimitService.checkLogin("10.0.0.1", "jane@example.com");
+
+        ReflectionTestUtils.setField(rateLimitService, "enabled", true);
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 3; i++) {
+                rateLimitService.checkRegistration("10.0.0.1");
+            }
+        }).isInstanceOf(RateLimitExceededException.class);
+    }
+}
@@ -0,0 +1,138 @@
+package com.midlane.project_management_tool_auth_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.midlane.project_management_tool_auth_service.dto.AuthEventDto;
+import com.midlane.project_management_tool_auth_service.model.User;
+import com.midlane.project_management_tool_auth_service.repository.UserRepository;
+import com.midlane.project_management_tool_auth_service.security.AccessTokenDenyList;
+import com.midlane.project_management_tool_auth_service.security.RevocationJournal;
+import com.midlane.project_management_tool_auth_service.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private final KafkaProducerService kafkaProducerService = mock(KafkaProducerService.class);
+    private final RevocationJournal revocationJournal = mock(RevocationJournal.class);
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        when(revocationJournal.isEnabled()).thenReturn(false);
+        tokenRevocationService = new TokenRevocationService(kafkaProducerService, new ObjectMapper(),
+                mock(UserRepository.class), new AccessTokenDenyList(1_000, 0.001), mock(JwtUtil.class),
+                revocationJournal, new RestTemplateBuilder(), mock(RevocationStreamService.class));
+        ReflectionTestUtils.setField(tokenRevocationService, "authEventsTopic", "auth.events");
+        ReflectionTestUtils.setField(tokenRevocationService, "instanceId", "test");
+        ReflectionTestUtils.setField(tokenRevocationService, "accessTokenExpiration", 900_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tokensFromTheEpochSecondItselfAreRevoked() {
+        long epoch = System.currentTimeMillis() / 1000;
+        tokenRevocationService.applyAuthEvent(AuthEventDto.builder()
+                .eventType(TokenRevocationService.TOKEN_EPOCH_EVENT)
+                .subject("jane@example.com")
+                .epochSecond(epoch)
+                .build());
+
+        assertThat(tokenRevocationService.isRevoked("jane@example.com", "jti-1", epoch - 1)).isTrue();
+        assertThat(tokenRevocationService.isRevoked("jane@example.com", "jti-2", epoch)).isTrue();
+        assertThat(tokenRevocationService.isRevoked("jane@example.com", "jti-3", epoch + 1)).isFalse();
+        assertThat(tokenRevocationService.isRevoked("john@example.com", "jti-4", epoch - 1)).isFalse();
+    }
+
+    @Test
+    void epochIsAppliedAndBroadcastOnlyAfterCommit() {
+        User user = user("jane@example.com");
+        TransactionSynchronizationManager.initSynchronization();
+
+        tokenRevocationService.revokeAllAccessTokens(user);
+
+        long epoch = user.getTokensValidAfter().atZone(ZoneId.systemDefault()).toEpochSecond();
+        assertThat(tokenRevocationService.isRevoked("jane@example.com", "jti-1", epoch)).isFalse();
+        verify(kafkaProducerService, never()).sendMessageWithKey(anyString(), anyString(), anyString());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(tokenRevocationService.isRevoked("jane@example.com", "jti-1", epoch)).isTrue();
+        verify(kafkaProducerService).sendMessageWithKey(eq("auth.events"), eq("jane@example.com"), anyString());
+    }
+
+    @Test
+    void rolledBackRevocationRevokesNothing() {
+        User user = user("jane@example.com");
+        TransactionSynchronizationManager.initSynchronization();
+
+        tokenRevocationService.revokeAllAccessTokens(user);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        long epoch = user.getTokensValidAfter().atZone(ZoneId.systemDefault()).toEpochSecond();
+        assertThat(tokenRevocationService.isRevoked("jane@example.com", "jti-1", epoch)).isFalse();
+        verify(kafkaProducerService, never()).sendMessageWithKey(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void fullJournalIsNotRewrittenOnEveryRevocation(@TempDir Path tempDir) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Room for 10 entries, growing once to 21
+        RevocationJournal journal = new RevocationJournal(true, tempDir.resolve("revocations.journal").toString(),
+                232, 464, meterRegistry);
+        TokenRevocationService service = new TokenRevocationService(kafkaProducerService, new ObjectMapper(),
+                mock(UserRepository.class), new AccessTokenDenyList(1_000, 0.001), mock(JwtUtil.class),
+                journal, new RestTemplateBuilder(), mock(RevocationStreamService.class));
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", 900_000L);
+        long expiresAt = System.currentTimeMillis() / 1000 + 900;
+        try {
+            for (int i = 0; i < 40; i++) {
+                service.applyAuthEvent(AuthEventDto.builder()
+                        .eventType(TokenRevocationService.TOKEN_REVOKED_EVENT)
+                        .tokenId(String.format("jti-%03d", i))
+                        .expiresAt(expiresAt)
+                        .build());
+            }
+
+            assertThat(journal.isOverflowing()).isTrue();
+            assertThat(journal.size()).isEqualTo(21);
+            assertThat(meterRegistry.counter("revocation.journal.lost").count()).isEqualTo(19);
+            // A rewrite attempted for each lost entry could not fit and would have been counted here
+            assertThat(meterRegistry.counter("revocation.journal.compaction.failures").count()).isZero();
+            // Entries that could not be journaled are still in effect
+            assertThat(service.isRevoked("jane@example.com", "jti-039", null)).isTrue();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        return user;
+    }
+}
@@ -0,0 +1,95 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final GradientLimiter limiter = new GradientLimiter(10, 1, 100, 1.5, 0.2, 10, 600);
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        for (int i = 1; i <= 10; i++) {
+            assertThat(limiter.tryAcquire()).isEqualTo(i);
+        }
+        assertThat(limiter.tryAcquire()).isEqualTo(-1);
+        assertThat(limiter.getInflight()).isEqualTo(10);
+
+        limiter.cancel();
+        assertThat(limiter.tryAcquire()).isEqualTo(10);
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsStable() {
+        int previous = limiter.getLimit();
+        for (int round = 0; round < 5; round++) {
+            sampleAtFullLimit(FAST);
+            assertThat(limiter.getLimit()).isGreaterThan(previous);
+            previous = limiter.getLimit();
+        }
+        assertThat(limiter.getInflight()).isZero();
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        for (int round = 0; round < 10; round++) {
+            sampleAtFullLimit(FAST);
+        }
+        int grown = limiter.getLimit();
+
+        for (int round = 0; round < 10; round++) {
+            sampleAtFullLimit(SLOW);
+        }
+        assertThat(limiter.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void samplesBelowHalfTheLimitAreIgnored() {
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, 4);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW * 10, 4);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        GradientLimiter bounded = new GradientLimiter(10, 5, 12, 1.5, 0.2, 10, 600);
+        for (int round = 0; round < 20; round++) {
+            sampleAtFullLimit(bounded, FAST);
+        }
+        assertThat(bounded.getLimit()).isEqualTo(12);
+        for (int round = 0; round < 20; round++) {
+            sampleAtFullLimit(bounded, SLOW * 100);
+        }
+        assertThat(bounded.getLimit()).isEqualTo(5);
+    }
+
+    private void sampleAtFullLimit(long rttNanos) {
+        sampleAtFullLimit(limiter, rttNanos);
+    }
+
+    // Fill the limit, then complete every request with the same latency
+    private static void sampleAtFullLimit(GradientLimiter limiter, long rttNanos) {
+        int limit = limiter.getLimit();
+        int[] inflightAtStart = new int[limit];
+        for (int i = 0; i < limit; i++) {
+            inflightAtStart[i] = limiter.tryAcquire();
+        }
+        for (int inflight : inflightAtStart) {
+            limiter.release(rttNanos, inflight);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new MpscRingBuffer<>(1).capacity()).isEqualTo(2);
+        assertThat(new MpscRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new MpscRingBuffer<>(8).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    void reportsFullAndEmpty() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 10)).isZero();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.drain(drained::add, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(0, 1, 2, 3);
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.drain(drained::add, 10)).isZero();
+    }
+
+    @Test
+    void keepsOrderAcrossWraparound() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        for (int lap = 0; lap < 10; lap++) {
+            while (buffer.offer(next)) {
+                next++;
+            }
+            // Drain part of the buffer so the next lap starts mid-array
+            buffer.drain(drained::add, 3);
+        }
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertThat(drained).hasSize(next);
+        for (int i = 0; i < next; i++) {
+            assertThat(drained.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void drainStopsAtMaxElements() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 2)).isEqualTo(2);
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1);
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws InterruptedException {
+        int producers = 8;
+        int perProducer = 50_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        BitSet seen = new BitSet(producers * perProducer);
+        int[] lastPerProducer = new int[producers];
+        Arrays.fill(lastPerProducer, -1);
+        int[] received = {0};
+        boolean[] duplicateOrReordered = {false};
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received[0] < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drain(value -> {
+                if (seen.get(value)) {
+                    duplicateOrReordered[0] = true;
+                }
+                seen.set(value);
+                // Elements from one producer come out in the order it offered them
+                int producer = value / perProducer;
+                if (value % perProducer <= lastPerProducer[producer]) {
+                    duplicateOrReordered[0] = true;
+                }
+                lastPerProducer[producer] = value % perProducer;
+                received[0]++;
+            }, 256);
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(duplicateOrReordered[0]).isFalse();
+        assertThat(received[0]).isEqualTo(producers * perProducer);
+        assertThat(seen.cardinality()).isEqualTo(producers * perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+}
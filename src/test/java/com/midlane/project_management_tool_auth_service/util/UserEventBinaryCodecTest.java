@@ -0,0 +1,64 @@
+package com.midlane.project_management_tool_auth_service.util;
+
+import com.midlane.project_management_tool_auth_service.dto.UserEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserEventBinaryCodecTest {
+
+    @Test
+    void roundTripsEveryField() {
+        UserEvent event = UserEvent.builder()
+                .eventType("USER_UPDATED")
+                .userId(300_000_000_000L)
+                .email("jane@example.com")
+                .firstName("Zoë")
+                .lastName("Ångström")
+                .role("ADMIN")
+                .provider("GOOGLE")
+                .timestamp(LocalDateTime.of(2024, 5, 17, 9, 30, 15, 123_000_000))
+                .eventSource("auth-service")
+                .eventVersion("1.0")
+                .build();
+
+        byte[] payload = UserEventBinaryCodec.encode(event);
+
+        assertThat(payload[0]).isEqualTo((byte) 'U');
+        assertThat(payload[1]).isEqualTo((byte) UserEventBinaryCodec.SCHEMA_VERSION);
+        assertThat(UserEventBinaryCodec.decode(payload)).isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsAbsentFieldsAndUnknownEventTypes() {
+        UserEvent event = UserEvent.builder()
+                .eventType("USER_MERGED")
+                .userId(0L)
+                .email("")
+                .build();
+
+        assertThat(UserEventBinaryCodec.decode(UserEventBinaryCodec.encode(event))).isEqualTo(event);
+        assertThat(UserEventBinaryCodec.decode(UserEventBinaryCodec.encode(new UserEvent()))).isEqualTo(new UserEvent());
+    }
+
+    @Test
+    void rejectsUnknownSchemaVersion() {
+        byte[] payload = UserEventBinaryCodec.encode(UserEvent.builder().eventType("USER_CREATED").userId(1L).build());
+        payload[1] = (byte) (UserEventBinaryCodec.SCHEMA_VERSION + 1);
+
+        assertThatThrownBy(() -> UserEventBinaryCodec.decode(payload))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("schema version");
+    }
+
+    @Test
+    void rejectsPayloadsWithoutTheMagicByte() {
+        byte[] payload = "{\"eventType\":\"USER_CREATED\"}".getBytes();
+
+        assertThatThrownBy(() -> UserEventBinaryCodec.decode(payload))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}